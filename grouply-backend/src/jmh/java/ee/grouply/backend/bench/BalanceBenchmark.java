@@ -0,0 +1,92 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.dto.ExpenseCreateDTO;
+import ee.grouply.backend.dto.ShareDTO;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.BalanceLedgerService;
+import ee.grouply.backend.service.ExpenseService;
+import ee.grouply.backend.service.SettlementService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// balance reads of one event on a synthetic H2 history: ledger read, SQL aggregate recompute, settlement
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceBenchmark {
+    private static final long EVENT_ID = 1L;
+
+    @Param({"5", "50"})
+    public int participants;
+
+    @Param({"100", "10000"})
+    public int expenses;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private BalanceLedgerService ledger;
+    private SettlementService settlementService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchApp.start();
+        expenseService = context.getBean(ExpenseService.class);
+        ledger = context.getBean(BalanceLedgerService.class);
+        settlementService = context.getBean(SettlementService.class);
+
+        var userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            users.add(new User("bench-" + i, "bench-" + i + "@example.com"));
+        }
+        List<Long> ids = userRepository.saveAll(users).stream().map(User::getId).toList();
+
+        var random = new Random(42);
+        for (int i = 0; i < expenses; i++) {
+            var dto = new ExpenseCreateDTO();
+            dto.eventId = EVENT_ID;
+            dto.payerId = ids.get(random.nextInt(ids.size()));
+            dto.amount = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            dto.splitMode = SplitMode.EQUAL;
+            dto.shares = new ArrayList<>();
+            for (var id : ids) {
+                var s = new ShareDTO();
+                s.userId = id;
+                dto.shares.add(s);
+            }
+            expenseService.createExpense(dto);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> computeBalancesForEvent() {
+        return expenseService.computeBalancesForEvent(EVENT_ID);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> recomputeFromHistory() {
+        return ledger.recomputeBalancesForEvent(EVENT_ID);
+    }
+
+    @Benchmark
+    public Object suggestSettlements() {
+        return settlementService.suggestSettlements(EVENT_ID);
+    }
+}
@@ -0,0 +1,71 @@
+package ee.grouply.backend.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result against a stored baseline and exits non-zero when any
+ * benchmark got slower than the tolerance allows. A missing baseline only prints a hint.
+ * Usage: BaselineCheck result.json baseline.json tolerancePercent
+ */
+public final class BaselineCheck {
+    private BaselineCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        var result = new File(args[0]);
+        var baseline = new File(args[1]);
+        double tolerance = Double.parseDouble(args[2]) / 100.0;
+
+        if (!result.isFile()) {
+            System.out.println("No benchmark result at " + result + ", nothing to compare");
+            return;
+        }
+        if (!baseline.isFile()) {
+            System.out.println("No baseline at " + baseline + "; copy " + result + " there to record one");
+            return;
+        }
+
+        var mapper = new ObjectMapper();
+        var current = scores(mapper.readTree(result));
+        var stored = scores(mapper.readTree(baseline));
+
+        int regressions = 0;
+        for (var e : current.entrySet()) {
+            var before = stored.get(e.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s %.3f%n", e.getKey(), e.getValue()[0]);
+                continue;
+            }
+            double now = e.getValue()[0];
+            boolean higherIsBetter = e.getValue()[1] > 0;
+            // relative change where positive always means slower
+            double change = higherIsBetter ? (before[0] - now) / before[0] : (now - before[0]) / before[0];
+            boolean regressed = change > tolerance;
+            if (regressed) regressions++;
+            System.out.printf("%-10s %s %.3f -> %.3f (%+.1f%%)%n",
+                    regressed ? "REGRESSED" : "ok", e.getKey(), before[0], now, change * 100);
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower than the baseline by more than " + args[2] + "%");
+            System.exit(1);
+        }
+    }
+
+    // "benchmark{params}" -> [score, 1 if throughput-like]
+    private static Map<String, double[]> scores(JsonNode runs) {
+        Map<String, double[]> out = new LinkedHashMap<>();
+        for (var run : runs) {
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").properties().forEach(p -> params.put(p.getKey(), p.getValue().asText()));
+            var key = run.path("benchmark").asText() + (params.isEmpty() ? "" : params.toString());
+            boolean throughput = "thrpt".equals(run.path("mode").asText());
+            out.put(key, new double[]{run.path("primaryMetric").path("score").asDouble(), throughput ? 1 : 0});
+        }
+        return out;
+    }
+}
@@ -0,0 +1,44 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.GrouplyBackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// starts the backend on a private in-memory H2 database (or -Dbench.jdbc.url)
+final class BenchApp {
+    private BenchApp() {}
+
+    // without a web server, for benchmarks that call the services directly
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return run(WebApplicationType.NONE, null, extraProperties);
+    }
+
+    // with Tomcat on a random port; extraSource may add beans to the context
+    static ConfigurableApplicationContext startWeb(Class<?> extraSource, String... extraProperties) {
+        return run(WebApplicationType.SERVLET, extraSource, extraProperties);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, Class<?> extraSource,
+                                                      String... extraProperties) {
+        var url = System.getProperty("bench.jdbc.url",
+                "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        // command line arguments, so they win over application.yml
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("bench.jdbc.user", "grouply"),
+                "--spring.datasource.password=" + System.getProperty("bench.jdbc.password", "pass"),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--server.port=0",
+                "--grouply.upload-dir=target/bench-uploads"));
+        for (var p : extraProperties) args.add("--" + p);
+        var builder = new SpringApplicationBuilder(GrouplyBackendApplication.class).web(type);
+        if (extraSource != null) builder.sources(extraSource);
+        return builder.run(args.toArray(String[]::new));
+    }
+}
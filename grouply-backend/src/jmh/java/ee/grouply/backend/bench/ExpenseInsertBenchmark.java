@@ -0,0 +1,73 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.dto.ExpenseCreateDTO;
+import ee.grouply.backend.dto.ShareDTO;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.ExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-share createExpense calls per second. batchSize=1 turns JDBC batching off, which is
+ * how every insert went out while ids were IDENTITY. Runs on in-memory H2 by default; point
+ * -Dbench.jdbc.url (and bench.jdbc.user / bench.jdbc.password) at a PostgreSQL database to
+ * measure that dialect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseInsertBenchmark {
+    @Param({"2", "40"})
+    public int participants;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private ExpenseCreateDTO dto;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchApp.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        expenseService = context.getBean(ExpenseService.class);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            users.add(new User("insert-" + i, "insert-" + i + "@example.com"));
+        }
+        var ids = context.getBean(UserRepository.class).saveAll(users).stream().map(User::getId).toList();
+
+        dto = new ExpenseCreateDTO();
+        dto.eventId = 1L;
+        dto.payerId = ids.get(0);
+        dto.amount = new BigDecimal("123.45");
+        dto.splitMode = SplitMode.EQUAL;
+        dto.shares = new ArrayList<>();
+        for (var id : ids) {
+            var s = new ShareDTO();
+            s.userId = id;
+            dto.shares.add(s);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createExpense() {
+        return expenseService.createExpense(dto);
+    }
+}
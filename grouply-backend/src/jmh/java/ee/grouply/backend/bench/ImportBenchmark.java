@@ -0,0 +1,81 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.ExpenseImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import throughput in rows per second for a CSV of mixed split modes, by chunk size.
+ * chunkSize=1 is one transaction per row, the closest the import gets to posting rows one
+ * by one; compare with ExpenseInsertBenchmark for the per-request path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ImportBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+    static final int ROWS = 2000;
+
+    @Param({"1", "50", "500"})
+    public int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseImportService importService;
+    private Long eventId;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchApp.start();
+        importService = context.getBean(ExpenseImportService.class);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(new User("import-" + i, "import-" + i + "@example.com"));
+        }
+        var ids = context.getBean(UserRepository.class).saveAll(users).stream().map(User::getId).toList();
+        eventId = context.getBean(EventRepository.class).save(new Event()).getId();
+
+        var random = new SplittableRandom(42);
+        var sb = new StringBuilder("payerId,amount,description,splitMode,shares\n");
+        for (int r = 0; r < ROWS; r++) {
+            int n = 2 + random.nextInt(6);
+            sb.append(ids.get(random.nextInt(ids.size()))).append(',')
+                    .append(random.nextInt(1, 100_000) / 100.0).append(",row ").append(r).append(',');
+            boolean ratio = r % 2 == 1;
+            sb.append(ratio ? "RATIO" : "EQUAL").append(',');
+            for (int i = 0; i < n; i++) {
+                if (i > 0) sb.append(';');
+                sb.append(ids.get((r + i) % ids.size()));
+                if (ratio) sb.append(':').append(1 + random.nextInt(5));
+            }
+            sb.append('\n');
+        }
+        csv = sb.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object importCsv() {
+        var report = importService.importExpenses(eventId, new StringReader(csv), ExpenseImportService.Format.CSV, chunkSize);
+        if (report.imported != ROWS) throw new IllegalStateException("imported " + report.imported + " of " + ROWS);
+        return report;
+    }
+}
@@ -0,0 +1,50 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+// the BigDecimal split loops createExpense used before SplitEngine, kept as a reference point
+final class LegacySplit {
+    private LegacySplit() {}
+
+    static BigDecimal[] split(SplitMode mode, BigDecimal amount, List<ShareDTO> shares) {
+        int n = shares.size();
+        BigDecimal[] out = new BigDecimal[n];
+        BigDecimal totalAssigned = BigDecimal.ZERO;
+        if (mode == SplitMode.EQUAL) {
+            BigDecimal base = amount.divide(BigDecimal.valueOf(n), 10, RoundingMode.HALF_UP);
+            for (int i = 0; i < n; i++) {
+                BigDecimal amt = base.setScale(2, RoundingMode.HALF_UP);
+                if (i == n - 1) amt = amount.subtract(totalAssigned).setScale(2, RoundingMode.HALF_UP);
+                out[i] = amt;
+                totalAssigned = totalAssigned.add(amt);
+            }
+        } else if (mode == SplitMode.PERCENTAGE) {
+            for (int i = 0; i < n; i++) {
+                var s = shares.get(i);
+                BigDecimal pct = BigDecimal.valueOf(s.value).divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
+                BigDecimal amt = amount.multiply(pct).setScale(2, RoundingMode.HALF_UP);
+                if (i == n - 1) amt = amount.subtract(totalAssigned).setScale(2, RoundingMode.HALF_UP);
+                out[i] = amt;
+                totalAssigned = totalAssigned.add(amt);
+            }
+        } else {
+            // RATIO; UNITS did not exist and is measured as RATIO
+            double totalRatio = shares.stream().mapToDouble(s -> s.value == null ? 0.0 : s.value).sum();
+            for (int i = 0; i < n; i++) {
+                var s = shares.get(i);
+                double v = s.value == null ? 0.0 : s.value;
+                BigDecimal frac = BigDecimal.valueOf(v).divide(BigDecimal.valueOf(totalRatio), 10, RoundingMode.HALF_UP);
+                BigDecimal amt = amount.multiply(frac).setScale(2, RoundingMode.HALF_UP);
+                if (i == n - 1) amt = amount.subtract(totalAssigned).setScale(2, RoundingMode.HALF_UP);
+                out[i] = amt;
+                totalAssigned = totalAssigned.add(amt);
+            }
+        }
+        return out;
+    }
+}
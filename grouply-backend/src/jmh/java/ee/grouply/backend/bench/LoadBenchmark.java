@@ -0,0 +1,221 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.dto.ExpenseCreateDTO;
+import ee.grouply.backend.dto.ShareDTO;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.ExpenseService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test of the balances and expenses endpoints, run once with the
+ * platform request thread pool and once with virtual threads. Each mode starts its own
+ * backend on a random port with the same seeded event. Every JDBC statement is delayed by
+ * bench.load.db-latency to stand in for the round trip to a remote database, which is the
+ * blocking the request threads spend their time on; without it an in-memory H2 makes every
+ * request CPU bound and the thread model does not matter.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec@load-test}; settings are system
+ * properties passed through -Dbench.load.args, e.g.
+ * {@code -Dbench.load.args="-Dbench.load.concurrency=800 -Dbench.load.pool=20"}:
+ * <ul>
+ *     <li>bench.load.modes: platform,virtual</li>
+ *     <li>bench.load.concurrency: clients sending back to back requests (400)</li>
+ *     <li>bench.load.threads: Tomcat threads in platform mode (50)</li>
+ *     <li>bench.load.pool: JDBC connections in both modes (20)</li>
+ *     <li>bench.load.db-latency: ms added to each statement (5)</li>
+ *     <li>bench.load.warmup / bench.load.duration: seconds per endpoint (5 / 15)</li>
+ * </ul>
+ */
+public class LoadBenchmark {
+    private static final int EXPENSES = 200;
+    private static final int USERS = 20;
+
+    public static void main(String[] args) throws Exception {
+        var modes = System.getProperty("bench.load.modes", "platform,virtual").split(",");
+        int concurrency = Integer.getInteger("bench.load.concurrency", 400);
+        int threads = Integer.getInteger("bench.load.threads", 50);
+        int pool = Integer.getInteger("bench.load.pool", 20);
+        long dbLatency = Long.getLong("bench.load.db-latency", 5);
+        int warmup = Integer.getInteger("bench.load.warmup", 5);
+        int duration = Integer.getInteger("bench.load.duration", 15);
+
+        System.out.printf("concurrency=%d platform-threads=%d pool=%d db-latency=%dms duration=%ds%n",
+                concurrency, threads, pool, dbLatency, duration);
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %-36s %10s %9s %9s %8s", "mode", "endpoint", "req/s", "p50 ms", "p99 ms", "errors"));
+        for (var mode : modes) {
+            var context = BenchApp.startWeb(SlowDatabase.class,
+                    "spring.threads.virtual.enabled=" + mode.trim().equals("virtual"),
+                    "server.tomcat.threads.max=" + threads,
+                    "spring.datasource.hikari.maximum-pool-size=" + pool,
+                    "bench.load.db-latency=" + dbLatency);
+            try {
+                long eventId = seed(context.getBean(UserRepository.class), context.getBean(EventRepository.class),
+                        context.getBean(ExpenseService.class));
+                int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                for (var path : List.of("/api/events/" + eventId + "/balances",
+                        "/api/events/" + eventId + "/expenses/page")) {
+                    var uri = URI.create("http://localhost:" + port + path);
+                    run(uri, concurrency, warmup);
+                    var r = run(uri, concurrency, duration);
+                    report.add(String.format("%-9s %-36s %10.1f %9.1f %9.1f %8d", mode.trim(), path,
+                            r.count() / (double) duration, r.percentile(0.50), r.percentile(0.99), r.errors()));
+                }
+            } finally {
+                context.close();
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static long seed(UserRepository users, EventRepository events, ExpenseService expenses) {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) created.add(new User("load-" + i, "load-" + i + "@example.com"));
+        var ids = users.saveAll(created).stream().map(User::getId).toList();
+        long eventId = events.save(new Event("Load test", null, null, null, null)).getId();
+        var random = new SplittableRandom(7);
+        for (int i = 0; i < EXPENSES; i++) {
+            var dto = new ExpenseCreateDTO();
+            dto.eventId = eventId;
+            dto.payerId = ids.get(random.nextInt(USERS));
+            dto.amount = BigDecimal.valueOf(random.nextInt(100, 50_000), 2);
+            dto.description = "expense " + i;
+            dto.splitMode = SplitMode.EQUAL;
+            dto.shares = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                var s = new ShareDTO();
+                s.userId = ids.get((i + j) % USERS);
+                dto.shares.add(s);
+            }
+            expenses.createExpense(dto);
+        }
+        return eventId;
+    }
+
+    private record Result(long[] latenciesNanos, long errors) {
+        int count() {
+            return latenciesNanos.length;
+        }
+
+        double percentile(double p) {
+            if (latenciesNanos.length == 0) return Double.NaN;
+            int i = (int) Math.ceil(p * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, i)] / 1e6;
+        }
+    }
+
+    // every client is a virtual thread sending its next request as soon as the last one answered
+    private static Result run(URI uri, int concurrency, int seconds) throws InterruptedException {
+        var stop = new AtomicBoolean();
+        var errors = new AtomicLong();
+        long[][] samples = new long[concurrency][];
+        int[] counts = new int[concurrency];
+        try (var clients = Executors.newVirtualThreadPerTaskExecutor();
+             var http = HttpClient.newBuilder().executor(clients).version(HttpClient.Version.HTTP_1_1).build()) {
+            var request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+            for (int c = 0; c < concurrency; c++) {
+                int client = c;
+                samples[c] = new long[1024];
+                clients.submit(() -> {
+                    while (!stop.get()) {
+                        long start = System.nanoTime();
+                        try {
+                            var response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        long took = System.nanoTime() - start;
+                        if (stop.get()) break;
+                        if (counts[client] == samples[client].length) {
+                            samples[client] = Arrays.copyOf(samples[client], counts[client] * 2);
+                        }
+                        samples[client][counts[client]++] = took;
+                    }
+                });
+            }
+            TimeUnit.SECONDS.sleep(seconds);
+            stop.set(true);
+        }
+        int total = 0;
+        for (int n : counts) total += n;
+        long[] all = new long[total];
+        int at = 0;
+        for (int c = 0; c < concurrency; c++) {
+            System.arraycopy(samples[c], 0, all, at, counts[c]);
+            at += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get());
+    }
+
+    /**
+     * Added to the backend context as an extra source (not scanned, it has no @Configuration):
+     * wraps the DataSource so every executed statement first sleeps for bench.load.db-latency
+     * ms while holding its connection, like a database across the network would.
+     */
+    static class SlowDatabase {
+        @Bean
+        static BeanPostProcessor slowDatabasePostProcessor(org.springframework.core.env.Environment env) {
+            long latency = env.getProperty("bench.load.db-latency", Long.class, 0L);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource ds) || latency <= 0) return bean;
+                    return new DelegatingDataSource(ds) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return slow(super.getConnection(), Connection.class, latency);
+                        }
+                    };
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T slow(T target, Class<T> type, long latency) {
+            return (T) Proxy.newProxyInstance(LoadBenchmark.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) Thread.sleep(latency);
+                try {
+                    Object result = method.invoke(target, args);
+                    // statements created by the connection are wrapped as well
+                    if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return slow(result, (Class<Object>) method.getReturnType(), latency);
+                    }
+                    return result;
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.service.ExpenseService;
+import ee.grouply.backend.service.HotPathMetrics;
+import ee.grouply.backend.service.SettlementService;
+import ee.grouply.backend.service.UserLookup;
+import ee.grouply.backend.service.settlement.SettlementKernel;
+import ee.grouply.backend.service.settlement.SettlementMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// suggestSettlements over synthetic balances: the long-cents kernel, the service path and the old PriorityQueue greedy
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int participants;
+
+    private long[] userIds;
+    private long[] cents;
+    private Map<Long, BigDecimal> balances;
+    private SettlementService service;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        userIds = new long[participants];
+        cents = new long[participants];
+        balances = new HashMap<>();
+        long sum = 0;
+        for (int i = 0; i < participants; i++) {
+            userIds[i] = i + 1;
+            cents[i] = i == participants - 1 ? -sum : random.nextInt(200_001) - 100_000;
+            sum += cents[i];
+            balances.put(userIds[i], BigDecimal.valueOf(cents[i], 2));
+        }
+
+        var expenseService = Mockito.mock(ExpenseService.class);
+        Mockito.when(expenseService.computeBalancesForEvent(1L)).thenReturn(balances);
+        service = new SettlementService(expenseService, Mockito.mock(UserLookup.class), Duration.ofMillis(50),
+                new HotPathMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public SettlementKernel.Transfers kernel() {
+        return SettlementKernel.greedy(userIds, cents);
+    }
+
+    @Benchmark
+    public Object serviceGreedy() {
+        return service.suggestSettlements(1L, SettlementMode.GREEDY);
+    }
+
+    @Benchmark
+    public Object serviceOptimal() {
+        return service.suggestSettlements(1L, SettlementMode.OPTIMAL);
+    }
+
+    // includes copying the map, which the old code mutated in place
+    @Benchmark
+    public List<Object[]> legacyPriorityQueue() {
+        Map<Long, BigDecimal> map = new HashMap<>(balances);
+        map.entrySet().removeIf(e -> e.getValue().abs().compareTo(BigDecimal.valueOf(0.01)) < 0);
+        PriorityQueue<Map.Entry<Long, BigDecimal>> creditors = new PriorityQueue<>(
+                Comparator.comparing((Map.Entry<Long, BigDecimal> e) -> e.getValue()));
+        PriorityQueue<Map.Entry<Long, BigDecimal>> debtors = new PriorityQueue<>(
+                Comparator.comparing((Map.Entry<Long, BigDecimal> e) -> e.getValue()).reversed());
+        for (var e : map.entrySet()) {
+            if (e.getValue().compareTo(BigDecimal.ZERO) < 0) creditors.add(e);
+            else if (e.getValue().compareTo(BigDecimal.ZERO) > 0) debtors.add(e);
+        }
+        List<Object[]> out = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            var c = creditors.poll();
+            var d = debtors.poll();
+            BigDecimal credit = c.getValue().abs();
+            BigDecimal debt = d.getValue();
+            BigDecimal transfer = credit.min(debt).setScale(2, RoundingMode.HALF_UP);
+            out.add(new Object[]{d.getKey(), c.getKey(), transfer});
+            BigDecimal newCredit = credit.subtract(transfer);
+            BigDecimal newDebt = debt.subtract(transfer);
+            if (newCredit.compareTo(BigDecimal.valueOf(0.01)) >= 0) {
+                c.setValue(newCredit.negate());
+                creditors.add(c);
+            }
+            if (newDebt.compareTo(BigDecimal.valueOf(0.01)) >= 0) {
+                d.setValue(newDebt);
+                debtors.add(d);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,52 @@
+package ee.grouply.backend.bench;
+
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.dto.ShareDTO;
+import ee.grouply.backend.service.split.SplitEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// share computation of createExpense per split mode, SplitEngine against the old BigDecimal loops
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+    @Param({"EQUAL", "RATIO", "PERCENTAGE", "UNITS"})
+    public SplitMode mode;
+
+    @Param({"2", "50", "5000"})
+    public int participants;
+
+    private final SplitEngine engine = new SplitEngine();
+    private final BigDecimal amount = new BigDecimal("1234.57");
+    private final long totalCents = 123457;
+    private List<ShareDTO> shares;
+
+    @Setup
+    public void setup() {
+        shares = new ArrayList<>(participants);
+        for (int i = 0; i < participants; i++) {
+            var s = new ShareDTO();
+            s.userId = (long) i + 1;
+            s.value = mode == SplitMode.PERCENTAGE ? 100.0 / participants : (double) (1 + i % 3);
+            shares.add(s);
+        }
+    }
+
+    @Benchmark
+    public long[] splitEngine() {
+        return engine.split(mode, totalCents, shares);
+    }
+
+    @Benchmark
+    public BigDecimal[] legacyBigDecimal() {
+        return LegacySplit.split(mode, amount, shares);
+    }
+}
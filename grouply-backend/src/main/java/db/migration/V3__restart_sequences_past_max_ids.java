@@ -0,0 +1,63 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Moves every id sequence past the ids already in its table. V1 starts them at 1, but a
+ * database from before the migrations was baselined at V1 and has rows with IDENTITY ids,
+ * so the first sequence-numbered insert would collide with them. Hibernate's pooled
+ * optimizer hands out (value - 49 .. value) for each value it draws, hence max(id) + 50.
+ * A sequence that is already further along is left alone; this replaces the startup
+ * IdSequenceSync of the ddl-auto builds. Java rather than SQL because the restart value
+ * has to be a literal on PostgreSQL.
+ */
+public class V3__restart_sequences_past_max_ids extends BaseJavaMigration {
+    // allocationSize on every @SequenceGenerator
+    private static final long ALLOCATION_SIZE = 50;
+
+    // sequence -> the table it numbers
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "app_user_seq", "app_user",
+            "event_seq", "event",
+            "event_balance_seq", "event_balance",
+            "expense_seq", "expense",
+            "expense_share_seq", "expense_share",
+            "payment_seq", "payment",
+            "stored_object_seq", "stored_object");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        var connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+        for (var entry : SEQUENCES.entrySet()) {
+            var sequence = entry.getKey();
+            long target = queryLong(connection, "select coalesce(max(id), 0) from " + entry.getValue()) + ALLOCATION_SIZE;
+            if (target <= nextValue(connection, sequence, postgres)) continue;
+            try (var statement = connection.createStatement()) {
+                statement.execute("alter sequence " + sequence + " restart with " + target);
+            }
+        }
+    }
+
+    // what the sequence would return next, without drawing from it
+    private static long nextValue(Connection connection, String sequence, boolean postgres) throws SQLException {
+        if (postgres) {
+            return queryLong(connection, "select case when is_called then last_value + " + ALLOCATION_SIZE +
+                    " else last_value end from " + sequence);
+        }
+        return queryLong(connection, "select base_value from information_schema.sequences " +
+                "where sequence_schema = current_schema and lower(sequence_name) = '" + sequence + "'");
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (var statement = connection.createStatement(); var rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package ee.grouply.backend.api;
 
 import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.dto.EventDashboardDTO;
+import ee.grouply.backend.dto.EventPageDTO;
 import ee.grouply.backend.error.NotFoundException;
 import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.service.EventDashboardService;
+import ee.grouply.backend.service.EventSearchService;
+import ee.grouply.backend.service.EventService;
+import ee.grouply.backend.service.settlement.SettlementMode;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @CrossOrigin(origins = "*")
@@ -13,49 +22,68 @@ import java.util.List;
 public class EventController {
 
     private final EventRepository eventRepository;
+    private final EventService eventService;
+    private final EventSearchService eventSearch;
+    private final EventDashboardService dashboard;
 
-    public EventController(EventRepository eventRepository) {
+    public EventController(EventRepository eventRepository, EventService eventService,
+                           EventSearchService eventSearch, EventDashboardService dashboard) {
         this.eventRepository = eventRepository;
+        this.eventService = eventService;
+        this.eventSearch = eventSearch;
+        this.dashboard = dashboard;
     }
 
     // Adding a new event
     @PostMapping
     public Event addEvent(@RequestBody Event event) {
-        return eventRepository.save(event);
+        return eventService.create(event);
     }
 
     // All events
     @GetMapping
+    @Transactional(readOnly = true)
     public List<Event> all() {
         return eventRepository.findAll();
     }
 
+    // Paged summaries (no description), filtered by day range, location and search text;
+    // q matches words of the title, description or location by prefix
+    @GetMapping("/search")
+    public EventPageDTO search(@RequestParam(required = false) String q,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(required = false) String location,
+                               @RequestParam(required = false) Integer page,
+                               @RequestParam(required = false) Integer size) {
+        return eventSearch.search(q, from, to, location, page, size);
+    }
+
     // One event
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public Event one(@PathVariable Long id) {
         return  eventRepository.findById(id).orElseThrow(() -> new NotFoundException("Event with id " + id + " not found"));
     }
 
+    // Event, first expense page, balances, suggested transfers and users in one response;
+    // mode and limit as on settlements/suggested and expenses/page
+    @GetMapping("/{id}/dashboard")
+    public EventDashboardDTO dashboard(@PathVariable Long id,
+                                       @RequestParam(value = "mode", defaultValue = "greedy") String mode,
+                                       @RequestParam(value = "limit", required = false) Integer limit) {
+        return dashboard.load(id, SettlementMode.parse(mode), limit);
+    }
+
     // Updating an event
     @PutMapping("/{id}")
     public Event update(@PathVariable Long id, @RequestBody Event updated) {
-        return eventRepository.findById(id).map(e -> {
-            e.setTitle(updated.getTitle());
-            e.setDescription(updated.getDescription());
-            e.setDateTime(updated.getDateTime());
-            e.setLocation(updated.getLocation());
-            e.setCapacity(updated.getCapacity());
-            e.setImageUrl(updated.getImageUrl());
-            return eventRepository.save(e);
-        }).orElseThrow(() -> new NotFoundException("Event with id " + id + " not found"));
+        return eventService.update(id, updated);
     }
 
     // Delete an event
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        if (!eventRepository.existsById(id)) {
-            throw new NotFoundException("Event with id " + id + " not found");
-        }
-        eventRepository.deleteById(id);
+        eventService.delete(id);
     }
 }
@@ -2,52 +2,96 @@ package ee.grouply.backend.api;
 
 import ee.grouply.backend.dto.*;
 import ee.grouply.backend.domain.Expense;
+import ee.grouply.backend.service.ExpenseImportService;
 import ee.grouply.backend.service.ExpenseService;
+import ee.grouply.backend.service.HotPathMetrics;
 import ee.grouply.backend.repo.UserRepository;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import jakarta.validation.Valid;
+import java.io.Reader;
 import java.util.*;
-import java.util.stream.Collectors;
 
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = "ETag")
 @RestController
 @RequestMapping("/api")
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseImportService importService;
+    private final LedgerETag ledgerETag;
+    private final HotPathMetrics metrics;
 
-    public ExpenseController(ExpenseService expenseService, UserRepository userRepository) {
+    public ExpenseController(ExpenseService expenseService, ExpenseImportService importService,
+                             UserRepository userRepository, LedgerETag ledgerETag, HotPathMetrics metrics) {
         this.expenseService = expenseService;
+        this.importService = importService;
+        this.ledgerETag = ledgerETag;
+        this.metrics = metrics;
     }
 
+    // timed out here, around the transaction, so the commit that runs the batched inserts is included
     @PostMapping("/expenses")
     public Map<String, Object> createExpense(@Valid @RequestBody ExpenseCreateDTO dto) {
-        Expense e = expenseService.createExpense(dto);
-        return Map.of("id", e.getId());
+        var sample = metrics.start();
+        boolean ok = false;
+        try {
+            Expense e = expenseService.createExpense(dto);
+            ok = true;
+            return Map.of("id", e.getId());
+        } finally {
+            metrics.stop(sample, "grouply.expense.create", Tags.of(
+                    "split_mode", dto.splitMode.name(),
+                    "participants", HotPathMetrics.countBucket(dto.shares.size()),
+                    "outcome", HotPathMetrics.outcome(ok)));
+        }
     }
 
+    // both listings answer 304 while the event's ledger version is unchanged; the version and
+    // the rows are read in one read-only transaction, so a replica answers both consistently
     @GetMapping("/events/{id}/expenses")
-    public List<ExpenseDTO> listByEvent(@PathVariable("id") Long eventId) {
-        var expenses = expenseService.listByEvent(eventId);
-        return expenses.stream().map(e -> {
-            var x = new ExpenseDTO();
-            x.id = e.getId();
-            x.eventId = e.getEventId();
-            x.payerId = e.getPayer().getId();
-            x.payerName = e.getPayer().getName();
-            x.amount = e.getAmount();
-            x.description = e.getDescription();
-            x.splitMode = e.getSplitMode().name();
-            x.createdAt = e.getCreatedAt();
-            x.shares = e.getShares().stream().map(s -> {
-                var sv = new ExpenseDTO.ShareView();
-                sv.userId = s.getUser().getId();
-                sv.userName = s.getUser().getName();
-                sv.amount = s.getAmount();
-                return sv;
-            }).collect(Collectors.toList());
-            return x;
-        }).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ExpenseDTO> listByEvent(@PathVariable("id") Long eventId, ServletWebRequest request) {
+        if (ledgerETag.notModified(eventId, request)) return null;
+        return expenseService.listByEvent(eventId);
     }
-}
\ No newline at end of file
+
+    // cursor-paginated feed, newest first; pass nextCursor from the previous page to continue
+    @GetMapping("/events/{id}/expenses/page")
+    @Transactional(readOnly = true)
+    public ExpensePageDTO pageByEvent(@PathVariable("id") Long eventId,
+                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                      ServletWebRequest request) {
+        if (ledgerETag.notModified(eventId, request)) return null;
+        return expenseService.listPageByEvent(eventId, cursor, limit);
+    }
+
+    /**
+     * Bulk import of a CSV or NDJSON body, streamed row by row and committed in chunks.
+     * The format comes from ?format= or else the Content-Type (anything with "json" is
+     * NDJSON). Rows that fail are listed in the report; the other rows are still imported.
+     */
+    @PostMapping("/events/{id}/expenses/import")
+    public ImportReportDTO importExpenses(@PathVariable("id") Long eventId,
+                                          @RequestParam(value = "format", required = false) String format,
+                                          @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+                                          @RequestHeader(value = "Content-Type", required = false) String contentType,
+                                          Reader body) {
+        ExpenseImportService.Format f;
+        if (format != null) {
+            try {
+                f = ExpenseImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown import format " + format);
+            }
+        } else {
+            f = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")
+                    ? ExpenseImportService.Format.NDJSON : ExpenseImportService.Format.CSV;
+        }
+        return importService.importExpenses(eventId, body, f, chunkSize);
+    }
+}
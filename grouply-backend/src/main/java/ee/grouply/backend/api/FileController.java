@@ -0,0 +1,147 @@
+package ee.grouply.backend.api;
+
+import ee.grouply.backend.service.storage.UploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Serves uploaded files with single byte-range support, so video and large images can be
+ * seeked and interrupted downloads resumed. Bodies are handed to Tomcat's sendfile where the
+ * connector supports it, which copies from the page cache to the socket without passing
+ * through the heap; otherwise they are copied with {@link FileChannel#transferTo}.
+ */
+@CrossOrigin(origins = "*", exposedHeaders = {"Accept-Ranges", "Content-Range", "ETag"})
+@RestController
+public class FileController {
+    // Tomcat request attributes for sendfile, see org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // below this a plain write is cheaper than handing the file to the poller (Tomcat's own threshold)
+    private static final long SENDFILE_MIN = 48 * 1024;
+
+    // every file name is unique to its content (sha256 or a random UUID), so nothing under /files/ ever changes
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final UploadStore uploadStore;
+
+    public FileController(UploadStore uploadStore) {
+        this.uploadStore = uploadStore;
+    }
+
+    @RequestMapping(value = "/files/{*path}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable String path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(path);
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = etagOf(file);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // also sets ETag and Last-Modified, and answers 304 / 412 for conditional requests
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) return;
+
+        long start = 0, end = length - 1;
+        var rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && rangeApplies(request, etag, lastModified)) {
+            HttpRange range;
+            try {
+                var ranges = HttpRange.parseRanges(rangeHeader);
+                // several ranges would need a multipart body; the whole file is a valid answer too
+                range = ranges.size() == 1 ? ranges.get(0) : null;
+                if (range != null) {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                    // HttpRange does not check that the range starts inside the file
+                    if (start >= length || start > end) throw new IllegalArgumentException("Range outside the file");
+                }
+            } catch (IllegalArgumentException ex) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        // set only now, so the error page of a rejected range is still rendered as JSON
+        var type = MediaTypeFactory.getMediaType(file.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(type.toString());
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) return;
+
+        if (count >= SENDFILE_MIN && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (var in = FileChannel.open(file, StandardOpenOption.READ)) {
+            var out = Channels.newChannel(response.getOutputStream());
+            long sent = 0;
+            while (sent < count) {
+                long n = in.transferTo(start + sent, count - sent, out);
+                if (n <= 0) break;
+                sent += n;
+            }
+        }
+    }
+
+    // a file below the upload dir, never the temp area and never outside it
+    private Path resolve(String path) {
+        var relative = path.startsWith("/") ? path.substring(1) : path;
+        if (relative.isEmpty() || relative.contains("\\")) return null;
+        for (var segment : relative.split("/")) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..") || segment.equals(".tmp")) return null;
+        }
+        var root = uploadStore.root();
+        var file = root.resolve(relative).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    // the file name without extension, which is the content hash for stored files
+    private static String etagOf(Path file) {
+        var name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return "\"" + (dot > 0 ? name.substring(0, dot) : name) + "\"";
+    }
+
+    // If-Range: only send the range when the client's copy is still the current one
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        var ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"")) return ifRange.equals(etag);
+        try {
+            var date = Instant.from(DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC).parse(ifRange));
+            return date.equals(Instant.ofEpochMilli(lastModified).truncatedTo(ChronoUnit.SECONDS));
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+}
@@ -1,37 +1,131 @@
 package ee.grouply.backend.api;
 
 import ee.grouply.backend.dto.BalanceDTO;
+import ee.grouply.backend.dto.LedgerCheckDTO;
+import ee.grouply.backend.service.BalanceLedgerService;
+import ee.grouply.backend.service.LedgerExportService;
+import ee.grouply.backend.service.SettlementCache;
 import ee.grouply.backend.service.SettlementService;
-import ee.grouply.backend.service.SettlementService.Transfer;
+import ee.grouply.backend.service.settlement.SettlementMode;
+import ee.grouply.backend.service.stream.EventStreamService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {"X-Settlement-Algorithm", "X-Settlement-Transfers-Saved",
+        "X-Settlement-Version", "X-Settlement-Stale", "ETag"})
 @RestController
 @RequestMapping("/api/events")
 public class GroupController {
     private final SettlementService settlementService;
+    private final BalanceLedgerService ledger;
+    private final LedgerExportService ledgerExport;
+    private final LedgerETag ledgerETag;
+    private final EventStreamService eventStream;
+    private final SettlementCache settlementCache;
+    private final Duration maxSettlementWait;
 
-    public GroupController(SettlementService settlementService) {
+    public GroupController(SettlementService settlementService, BalanceLedgerService ledger,
+                           LedgerExportService ledgerExport, LedgerETag ledgerETag,
+                           EventStreamService eventStream, SettlementCache settlementCache,
+                           @Value("${grouply.settlement.cache.max-wait:5s}") Duration maxSettlementWait) {
         this.settlementService = settlementService;
+        this.ledger = ledger;
+        this.ledgerExport = ledgerExport;
+        this.ledgerETag = ledgerETag;
+        this.eventStream = eventStream;
+        this.settlementCache = settlementCache;
+        this.maxSettlementWait = maxSettlementWait;
     }
 
-    // balances for event (used as group)
+    // balances for event (used as group); 304 while the event's ledger version is unchanged
     @GetMapping("/{id}/balances")
-    public List<BalanceDTO> balances(@PathVariable("id") Long eventId) {
+    @Transactional(readOnly = true)
+    public List<BalanceDTO> balances(@PathVariable("id") Long eventId, ServletWebRequest request) {
+        if (ledgerETag.notModified(eventId, request)) return null;
         return settlementService.balancesForEvent(eventId);
     }
 
+    // compare the ledger against a full recompute from expense/payment history
+    @GetMapping("/{id}/balances/verify")
+    @Transactional(readOnly = true)
+    public LedgerCheckDTO verifyBalances(@PathVariable("id") Long eventId) {
+        return ledger.verify(eventId);
+    }
+
+    // drop and rebuild the ledger rows of the event from history
+    @PostMapping("/{id}/balances/rebuild")
+    public List<BalanceDTO> rebuildBalances(@PathVariable("id") Long eventId) {
+        ledger.rebuild(eventId);
+        return settlementService.balancesForEvent(eventId);
+    }
+
+    // full ledger (expenses, shares, payments) streamed from a database cursor as it is read
+    @GetMapping("/{id}/ledger.csv")
+    public ResponseEntity<StreamingResponseBody> ledgerCsv(@PathVariable("id") Long eventId) {
+        return ledgerExport(eventId, LedgerExportService.Format.CSV, new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+    }
+
+    @GetMapping("/{id}/ledger.ndjson")
+    public ResponseEntity<StreamingResponseBody> ledgerNdjson(@PathVariable("id") Long eventId) {
+        return ledgerExport(eventId, LedgerExportService.Format.NDJSON, MediaType.APPLICATION_NDJSON, "ndjson");
+    }
+
+    private ResponseEntity<StreamingResponseBody> ledgerExport(Long eventId, LedgerExportService.Format format,
+                                                               MediaType type, String extension) {
+        ledgerExport.checkEvent(eventId);
+        StreamingResponseBody body = out -> ledgerExport.write(eventId, format, out);
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"event-" + eventId + "-ledger." + extension + "\"")
+                .body(body);
+    }
+
+    // live expense and balance changes as Server-Sent Events (see EventStreamService for the messages)
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable("id") Long eventId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventStream.subscribe(eventId, lastEventId);
+    }
+
+    /**
+     * mode=optimal tries the fewest-transfer solver first; the headers report what answered.
+     * The plan comes from the settlement cache and may trail the latest writes (then
+     * X-Settlement-Stale is true); wait=ms holds the request until a current plan is ready.
+     */
     @GetMapping("/{id}/settlements/suggested")
-    public List<Object> suggested(@PathVariable("id") Long eventId) {
-        List<Transfer> transfers = settlementService.suggestSettlements(eventId);
-        return transfers.stream().map(t -> Map.of(
+    public ResponseEntity<List<Object>> suggested(@PathVariable("id") Long eventId,
+                                                  @RequestParam(value = "mode", defaultValue = "greedy") String mode,
+                                                  @RequestParam(value = "wait", defaultValue = "0") long waitMillis,
+                                                  ServletWebRequest request) {
+        var settlementMode = SettlementMode.parse(mode);
+        if (ledgerETag.notModified(eventId, request)) return null;
+        var wait = Duration.ofMillis(Math.max(0, waitMillis));
+        var cached = settlementCache.get(eventId, settlementMode, wait.compareTo(maxSettlementWait) > 0 ? maxSettlementWait : wait);
+        ledgerETag.tag(eventId, cached.version(), request);
+        var plan = cached.plan();
+        List<Object> body = plan.transfers.stream().map(t -> (Object) Map.of(
                 "fromUserId", t.fromUserId,
                 "toUserId", t.toUserId,
                 "amount", t.amount
         )).collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .header("X-Settlement-Algorithm", plan.algorithm)
+                .header("X-Settlement-Transfers-Saved", String.valueOf(plan.transfersSaved))
+                .header("X-Settlement-Version", String.valueOf(cached.version()))
+                .header("X-Settlement-Stale", String.valueOf(cached.stale()))
+                .body(body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package ee.grouply.backend.api;
+
+import ee.grouply.backend.service.BalanceLedgerService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET for responses derived from an event's expenses and payments. The ETag is
+ * the event's ledger version, read before the response is built: a write that lands while
+ * the response is being built only makes the tag older than the body, which costs the
+ * client one extra download and never serves it stale data.
+ */
+@Component
+public class LedgerETag {
+    // browsers keep the response but ask every time, so a poll is a cheap revalidation
+    private static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private final BalanceLedgerService ledger;
+
+    public LedgerETag(BalanceLedgerService ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Sets the ETag of the event and returns true if the request's If-None-Match matched,
+     * in which case the response is already a 304 and the handler should return null.
+     */
+    public boolean notModified(Long eventId, ServletWebRequest request) {
+        var version = ledger.version(eventId);
+        if (version == null) return false;
+        if (request.getResponse() != null) request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        return request.checkNotModified(of(eventId, version));
+    }
+
+    /**
+     * Replaces the ETag with the version a cached response was actually built at, which can
+     * be older than the ledger. Returning a ResponseEntity then also answers 304 if the
+     * client holds that older version already.
+     */
+    public void tag(Long eventId, long version, ServletWebRequest request) {
+        if (request.getResponse() != null) request.getResponse().setHeader(HttpHeaders.ETAG, of(eventId, version));
+    }
+
+    private static String of(Long eventId, long version) {
+        return "\"" + eventId + "." + version + "\"";
+    }
+}
@@ -1,13 +1,20 @@
 package ee.grouply.backend.api;
 
-import org.springframework.beans.factory.annotation.Value;
+import ee.grouply.backend.domain.ImageVariant;
+import ee.grouply.backend.dto.UploadSessionCreateDTO;
+import ee.grouply.backend.dto.UploadSessionDTO;
+import ee.grouply.backend.service.HotPathMetrics;
+import ee.grouply.backend.service.storage.ImageVariantService;
+import ee.grouply.backend.service.storage.UploadSessionService;
+import ee.grouply.backend.service.storage.UploadStore;
+import jakarta.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.Tags;
+import jakarta.validation.Valid;
 import org.springframework.http.MediaType;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.*;
 import java.util.*;
 
 @CrossOrigin(origins = "*")
@@ -15,30 +22,83 @@ import java.util.*;
 @RequestMapping("/api/uploads")
 public class UploadController {
 
-    @Value("${grouply.upload-dir}")
-    private String uploadDir;
+    private final UploadStore uploadStore;
+    private final ImageVariantService imageVariants;
+    private final UploadSessionService sessions;
+    private final HotPathMetrics metrics;
 
+    public UploadController(UploadStore uploadStore, ImageVariantService imageVariants, UploadSessionService sessions,
+                            HotPathMetrics metrics) {
+        this.uploadStore = uploadStore;
+        this.imageVariants = imageVariants;
+        this.sessions = sessions;
+        this.metrics = metrics;
+    }
+
+    // content addressed: uploading the same file again returns the URL it already has
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Map<String, String> upload(@RequestParam("file") MultipartFile file) throws IOException {
+    public Map<String, Object> upload(@RequestParam("file") MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Empty file");
         }
 
-        Path projectRoot = Paths.get("").toAbsolutePath();
-        Path dir = projectRoot.resolve(uploadDir).normalize();
-        Files.createDirectories(dir);
+        var sample = metrics.start();
+        boolean ok = false;
+        UploadStore.StoredFile stored;
+        try (var in = file.getInputStream()) {
+            stored = uploadStore.store(in, file.getOriginalFilename(), file.getContentType());
+            ok = true;
+        } finally {
+            var type = file.getContentType();
+            metrics.stop(sample, "grouply.upload", Tags.of(
+                    "kind", type != null && type.startsWith("image/") ? "image" : "other",
+                    "size", HotPathMetrics.sizeBucket(file.getSize()),
+                    "outcome", HotPathMetrics.outcome(ok)));
+        }
+        return describe(stored);
+    }
+
+    // resumable upload: create a session, PUT every chunk at its offset, then complete
+    @PostMapping("/sessions")
+    public UploadSessionDTO createSession(@Valid @RequestBody UploadSessionCreateDTO dto) throws IOException {
+        return sessions.create(dto);
+    }
+
+    // which chunks are still missing, for resuming after a dropped connection
+    @GetMapping("/sessions/{id}")
+    public UploadSessionDTO getSession(@PathVariable String id) {
+        return sessions.status(id);
+    }
 
-        String original = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        String ext = "";
-        int dot = original.lastIndexOf('.');
-        if (dot != -1) ext = original.substring(dot);
+    // the raw request body is the chunk; it is streamed to disk, never buffered whole
+    @PutMapping(value = "/sessions/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public UploadSessionDTO putChunk(@PathVariable String id,
+                                     @RequestParam long offset,
+                                     HttpServletRequest request) throws IOException {
+        try (var body = request.getInputStream()) {
+            return sessions.writeChunk(id, offset, request.getContentLengthLong(), body);
+        }
+    }
 
-        String filename = UUID.randomUUID() + (ext.isBlank() ? "" : ext.toLowerCase());
-        Path target = dir.resolve(filename);
+    @PostMapping("/sessions/{id}/complete")
+    public Map<String, Object> completeSession(@PathVariable String id,
+                                               @RequestParam(required = false) String sha256) throws IOException {
+        return describe(sessions.complete(id, sha256));
+    }
 
-        Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+    @DeleteMapping("/sessions/{id}")
+    public void abortSession(@PathVariable String id) throws IOException {
+        sessions.abort(id);
+    }
 
-        String publicUrl = "/files/" + filename;
-        return Map.of("url", publicUrl);
+    private Map<String, Object> describe(UploadStore.StoredFile stored) {
+        // resized renditions are made in the background; until then clients use the original
+        boolean variants = imageVariants.schedule(stored);
+        return Map.of(
+                "url", stored.url(),
+                "sha256", stored.sha256(),
+                "size", stored.size(),
+                "deduplicated", stored.deduplicated(),
+                "variants", variants ? ImageVariant.urlsFor(stored.url()) : Map.of());
     }
 }
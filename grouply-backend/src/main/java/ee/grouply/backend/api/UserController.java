@@ -1,7 +1,10 @@
 package ee.grouply.backend.api;
 
 import ee.grouply.backend.domain.User;
+import ee.grouply.backend.dto.CacheStatsDTO;
 import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.UserLookup;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -11,9 +14,18 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
     private final UserRepository userRepository;
+    private final UserLookup userLookup;
 
-    public UserController(UserRepository userRepository) { this.userRepository = userRepository; }
+    public UserController(UserRepository userRepository, UserLookup userLookup) {
+        this.userRepository = userRepository;
+        this.userLookup = userLookup;
+    }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public List<User> list() { return userRepository.findAll(); }
+
+    // hit/miss counters of the id -> name cache, for sizing grouply.user-cache.max-size
+    @GetMapping("/cache/stats")
+    public CacheStatsDTO cacheStats() { return userLookup.stats(); }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package ee.grouply.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * The primary pool from spring.datasource, as Spring Boot would build it. With
+ * grouply.datasource.replica.url set, read-only transactions go to a second pool on the
+ * replica instead (see {@link ReadWriteRoutingDataSource} and {@link ReadYourWritesFilter}).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment env,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${grouply.datasource.replica.url:}") String replicaUrl,
+                                 @Value("${grouply.datasource.replica.username:}") String replicaUsername,
+                                 @Value("${grouply.datasource.replica.password:}") String replicaPassword,
+                                 @Value("${grouply.datasource.replica.migrate:false}") boolean migrateReplica) {
+        var binder = Binder.get(env);
+        var primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (replicaUrl.isBlank()) return primary;
+
+        var replica = new HikariDataSource();
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername.isBlank() ? properties.determineUsername() : replicaUsername);
+        replica.setPassword(replicaPassword.isBlank() ? properties.determinePassword() : replicaPassword);
+        binder.bind("grouply.datasource.replica.hikari", Bindable.ofInstance(replica));
+
+        if (primary.getPoolName() == null) primary.setPoolName("primary");
+        if (replica.getPoolName() == null) replica.setPoolName("replica");
+        // Spring Boot only instruments a Hikari pool it can see as a bean, so these are done here
+        meterRegistry.ifAvailable(registry -> {
+            var metrics = new MicrometerMetricsTrackerFactory(registry);
+            primary.setMetricsTrackerFactory(metrics);
+            replica.setMetricsTrackerFactory(metrics);
+        });
+
+        if (migrateReplica) {
+            // for a local stand-in replica (a second H2) that nothing replicates the schema to
+            Flyway.configure().dataSource(replica).load().migrate();
+        }
+
+        var routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Target.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
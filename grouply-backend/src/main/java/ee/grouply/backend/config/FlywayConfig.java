@@ -0,0 +1,61 @@
+package ee.grouply.backend.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Flyway owns the schema from V1 on. A database that Hibernate's ddl-auto=update created
+ * before that has the tables but no history table: it is first brought up to what V1
+ * creates (db/legacy/upgrade_to_v1.sql), baselined at V1, and then migrated as usual. Any
+ * other non-empty schema without a history table makes the migration fail, rather than
+ * being taken for V1 as it stands.
+ */
+@Configuration
+public class FlywayConfig {
+    static final String LEGACY_UPGRADE = "db/legacy/upgrade_to_v1.sql";
+
+    @Bean
+    public FlywayMigrationStrategy legacySchemaAwareMigration() {
+        return FlywayConfig::migrate;
+    }
+
+    public static void migrate(Flyway flyway) {
+        var dataSource = flyway.getConfiguration().getDataSource();
+        try {
+            if (flyway.info().applied().length == 0 && hasTable(dataSource, "event")) {
+                upgradeLegacySchema(dataSource);
+                flyway.baseline();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not upgrade the pre-migration schema", e);
+        }
+        flyway.migrate();
+    }
+
+    // one transaction on PostgreSQL; H2 commits each DDL statement by itself
+    private static void upgradeLegacySchema(DataSource dataSource) throws SQLException {
+        try (var connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(LEGACY_UPGRADE));
+            connection.commit();
+        }
+    }
+
+    private static boolean hasTable(DataSource dataSource, String table) throws SQLException {
+        try (var connection = dataSource.getConnection();
+             var tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(),
+                     null, new String[]{"TABLE"})) {
+            while (tables.next()) {
+                if (tables.getString("TABLE_NAME").equalsIgnoreCase(table)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ee.grouply.backend.config;
+
+import ee.grouply.backend.service.SettlementCache;
+import ee.grouply.backend.service.UserLookup;
+import ee.grouply.backend.service.search.EventSearchIndex;
+import ee.grouply.backend.service.stream.EventStreamService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // per-session hooks behind the request statement and entity counts
+    @Bean
+    public HibernatePropertiesCustomizer requestSqlStatsHooks() {
+        return props -> {
+            props.put("hibernate.session.events.auto", RequestSqlStats.StatementListener.class.getName());
+            props.put("hibernate.session_factory.interceptor", new RequestSqlStats.LoadCounter());
+        };
+    }
+
+    @Bean
+    public MeterBinder grouplyMeters(EventStreamService eventStream, SettlementCache settlementCache, UserLookup userLookup,
+                                     EventSearchIndex searchIndex) {
+        return registry -> {
+            Gauge.builder("grouply.stream.subscribers", eventStream, EventStreamService::subscriberCount)
+                    .register(registry);
+            FunctionCounter.builder("grouply.settlement.cache.computations", settlementCache, SettlementCache::computations)
+                    .register(registry);
+            FunctionCounter.builder("grouply.user.cache.hits", userLookup, u -> u.stats().hits).register(registry);
+            FunctionCounter.builder("grouply.user.cache.misses", userLookup, u -> u.stats().misses).register(registry);
+            Gauge.builder("grouply.search.index.events", searchIndex, EventSearchIndex::size).register(registry);
+        };
+    }
+}
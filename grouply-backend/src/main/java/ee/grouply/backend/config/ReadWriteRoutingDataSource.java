@@ -0,0 +1,28 @@
+package ee.grouply.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the connections of read-only transactions to the replica and everything else
+ * (writes, reads outside a transaction, migrations) to the primary. Needs to sit behind a
+ * LazyConnectionDataSourceProxy: the transaction manager asks for a connection before the
+ * transaction is marked read-only, the proxy defers that to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Target { PRIMARY, REPLICA }
+
+    // set by ReadYourWritesFilter for a client that has just written
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    static void pinToPrimary(boolean pinned) {
+        if (pinned) PINNED.set(Boolean.TRUE);
+        else PINNED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean read = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return read && PINNED.get() == null ? Target.REPLICA : Target.PRIMARY;
+    }
+}
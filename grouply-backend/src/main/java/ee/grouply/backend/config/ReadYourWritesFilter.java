@@ -0,0 +1,92 @@
+package ee.grouply.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-your-writes on top of the replica routing: for a while after a client writes, its
+ * reads go to the primary, so it does not see the replica's older state of what it just
+ * changed. A client is its X-Client-Id header, or its address without one. The write
+ * times are kept per instance; behind a load balancer this needs sticky sessions.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final Set<String> READS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final boolean enabled;
+    private final long windowNanos;
+    // client -> System.nanoTime() of its last write, least recently written dropped first
+    private final Map<String, Long> lastWrite;
+
+    public ReadYourWritesFilter(@Value("${grouply.datasource.replica.url:}") String replicaUrl,
+                                @Value("${grouply.datasource.read-your-writes.window:5s}") Duration window,
+                                @Value("${grouply.datasource.read-your-writes.max-clients:10000}") int maxClients) {
+        this.enabled = !replicaUrl.isBlank() && !window.isZero();
+        this.windowNanos = window.toNanos();
+        this.lastWrite = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxClients;
+            }
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var client = clientOf(request);
+        if (!READS.contains(request.getMethod())) {
+            // noted before the write as well: the client can read again as soon as the
+            // response is out, which may be before this filter gets control back
+            wrote(client);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                wrote(client);
+            }
+            return;
+        }
+
+        ReadWriteRoutingDataSource.pinToPrimary(recentlyWrote(client));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.pinToPrimary(false);
+        }
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        var id = request.getHeader("X-Client-Id");
+        return id != null && !id.isBlank() ? id : request.getRemoteAddr();
+    }
+
+    private void wrote(String client) {
+        synchronized (lastWrite) {
+            lastWrite.put(client, System.nanoTime());
+        }
+    }
+
+    private boolean recentlyWrote(String client) {
+        Long at;
+        synchronized (lastWrite) {
+            at = lastWrite.get(client);
+        }
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+}
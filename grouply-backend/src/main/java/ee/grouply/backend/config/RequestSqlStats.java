@@ -0,0 +1,66 @@
+package ee.grouply.backend.config;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+/**
+ * JDBC statements and entities loaded by the current request. Hibernate's own statistics
+ * are global to the session factory, so under concurrent requests they cannot tell which
+ * request ran what; these counters are fed by per-session hooks instead and kept per
+ * request thread. Work done off the request thread (background jobs, async sends) is not
+ * counted.
+ */
+public final class RequestSqlStats {
+    public static final class Counts {
+        // statements executed, a JDBC batch counting as one
+        public int statements;
+        public int entities;
+    }
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private RequestSqlStats() {}
+
+    static Counts start() {
+        var counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // null outside of a request
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    /** Created by Hibernate for every session (hibernate.session.events.auto). */
+    public static class StatementListener extends BaseSessionEventListener {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            var c = CURRENT.get();
+            if (c != null) c.statements++;
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            var c = CURRENT.get();
+            if (c != null) c.statements++;
+        }
+    }
+
+    /** Session factory interceptor; sees every entity hydrated from a result set. */
+    public static class LoadCounter implements Interceptor {
+        @Override
+        public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+            var c = CURRENT.get();
+            if (c != null) c.entities++;
+            return false;
+        }
+    }
+}
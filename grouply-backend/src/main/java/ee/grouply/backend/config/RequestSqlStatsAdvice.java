@@ -0,0 +1,35 @@
+package ee.grouply.backend.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds X-SQL-Statements and X-Entities-Loaded to response bodies written by controllers.
+ * Headers have to be set before the body is written, so this is where the counts are
+ * final enough; streamed responses (exports, files) only show up in the metrics.
+ */
+@ControllerAdvice
+public class RequestSqlStatsAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        var counts = RequestSqlStats.current();
+        if (counts != null) {
+            response.getHeaders().set("X-SQL-Statements", String.valueOf(counts.statements));
+            response.getHeaders().set("X-Entities-Loaded", String.valueOf(counts.entities));
+        }
+        return body;
+    }
+}
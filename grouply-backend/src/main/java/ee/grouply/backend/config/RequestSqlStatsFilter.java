@@ -0,0 +1,55 @@
+package ee.grouply.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the statements and entity loads of each request and records them per endpoint
+ * (grouply.http.sql.statements, grouply.http.entities.loaded), so an N+1 regression shows
+ * up as a jump in an endpoint's statement count. The counts also go out as response
+ * headers, see {@link RequestSqlStatsAdvice}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestSqlStatsFilter extends OncePerRequestFilter {
+    private final MeterRegistry registry;
+
+    public RequestSqlStatsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var counts = RequestSqlStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.end();
+            // only requests that reached a handler, so unknown paths cannot add series
+            var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (uri != null) {
+                summary("grouply.http.sql.statements", request, uri).record(counts.statements);
+                summary("grouply.http.entities.loaded", request, uri).record(counts.entities);
+            }
+        }
+    }
+
+    private DistributionSummary summary(String name, HttpServletRequest request, Object uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", request.getMethod())
+                .tag("uri", uri.toString())
+                .register(registry);
+    }
+}
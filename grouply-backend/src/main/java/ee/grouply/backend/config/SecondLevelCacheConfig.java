@@ -0,0 +1,98 @@
+package ee.grouply.backend.config;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Hibernate second-level cache for the read-mostly entities (User, Event) and for the
+ * query cache (findAll of EventRepository and UserRepository), in process on Ehcache.
+ * Every region is bounded by entry count and expires entries after the TTL, which also
+ * bounds how long a row read from a lagging replica can stay cached. Entity writes through Hibernate update or evict
+ * their entry, and invalidate the cached query results of the table, on commit.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    // Hibernate's default names for the query result and table timestamp regions
+    private static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    private static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+    private static final List<String> ENTITY_REGIONS = List.of(User.class.getName(), Event.class.getName());
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${grouply.l2-cache.ttl:10m}") Duration ttl,
+                                                @Value("${grouply.l2-cache.max-entities:10000}") long maxEntities,
+                                                @Value("${grouply.l2-cache.max-queries:1000}") long maxQueries) {
+        var provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        var manager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        for (var region : ENTITY_REGIONS) {
+            manager.createCache(region, region(maxEntities, ttl));
+        }
+        manager.createCache(QUERY_RESULTS, region(maxQueries, ttl));
+        // must outlive every cached query result it vouches for, so no TTL here; one entry per table
+        manager.createCache(UPDATE_TIMESTAMPS, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                        ResourcePoolsBuilder.heap(1000))));
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager) {
+        return props -> {
+            props.put("hibernate.cache.use_second_level_cache", true);
+            props.put("hibernate.cache.use_query_cache", true);
+            props.put("hibernate.cache.region.factory_class", "jcache");
+            props.put("hibernate.javax.cache.cache_manager", secondLevelCacheManager);
+            // every region is created above; a typo in a region name should not silently add an unbounded one
+            props.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // feeds the hibernate.second.level.cache.* metrics
+            props.put("hibernate.generate_statistics", true);
+        };
+    }
+
+    // hits / (hits + misses) since startup, per region; NaN until the region is first used
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (var region : ENTITY_REGIONS) {
+                Gauge.builder("grouply.l2cache.hit.ratio", statistics, s -> {
+                    var r = s.getDomainDataRegionStatistics(region);
+                    return ratio(r.getHitCount(), r.getMissCount());
+                }).tag("region", region).register(registry);
+            }
+            Gauge.builder("grouply.l2cache.hit.ratio", statistics,
+                            s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                    .tag("region", QUERY_RESULTS).register(registry);
+        };
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> region(long maxEntries, Duration ttl) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                                ResourcePoolsBuilder.heap(maxEntries))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl)));
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+}
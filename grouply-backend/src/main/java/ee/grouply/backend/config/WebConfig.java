@@ -1,26 +1,30 @@
 package ee.grouply.backend.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import jakarta.persistence.EntityManagerFactory;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    @Value("${grouply.upload-dir}")
-    private String uploadDir;
+    private final EntityManagerFactory entityManagerFactory;
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path projectRoot = Paths.get("").toAbsolutePath();
-        Path uploadPath = projectRoot.resolve(uploadDir).normalize();
+    public WebConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
 
-        registry.addResourceHandler("/files/**")
-                .addResourceLocations("file:" + uploadPath.toString() + "/");
+    /**
+     * Open-in-view as Spring Boot would register it (spring.jpa.open-in-view is off so it is
+     * not registered twice), except for event streams: an entity manager opened for a request
+     * keeps its JDBC connection until the request ends, which for a stream is up to its
+     * timeout, and a few dozen streams would hold the whole pool.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        var openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openInView).excludePathPatterns("/api/events/*/stream");
     }
 }
-
@@ -1,14 +1,21 @@
 package ee.grouply.backend.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
+// second-level cached; the ledger_version column is deliberately not mapped, see LedgerVersionRepository
 @Entity
 @Table(name = "event")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Event {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     private Long  id;
 
     private String title;
@@ -48,4 +55,8 @@ public class Event {
     public void setCapacity(Integer capacity) { this.capacity = capacity; }
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    // thumb / card / full renditions of an uploaded image, empty for external image URLs
+    @Transient
+    public Map<String, String> getImageVariants() { return ImageVariant.urlsFor(imageUrl); }
 }
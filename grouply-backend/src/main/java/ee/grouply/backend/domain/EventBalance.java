@@ -0,0 +1,40 @@
+package ee.grouply.backend.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+// running balance of one user within one event, kept in step with expense and payment writes
+@Entity
+@Table(name = "event_balance",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "user_id"}))
+public class EventBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_balance_seq")
+    @SequenceGenerator(name = "event_balance_seq", sequenceName = "event_balance_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // positive = they owe, negative = they are owed (same sign as computeBalancesForEvent)
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    public EventBalance() {}
+    public EventBalance(Long eventId, Long userId, BigDecimal balance) {
+        this.eventId = eventId;
+        this.userId = userId;
+        this.balance = balance;
+    }
+
+    public Long getId() { return id; }
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
@@ -9,7 +9,8 @@ import java.util.*;
 @Table(name = "expense")
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "expense_seq", allocationSize = 50)
     private Long id;
 
     // event-scoped (we assume event id groups expenses)
@@ -7,7 +7,8 @@ import java.math.BigDecimal;
 @Table(name = "expense_share")
 public class ExpenseShare {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_share_seq")
+    @SequenceGenerator(name = "expense_share_seq", sequenceName = "expense_share_seq", allocationSize = 50)
     private Long id;
 
     // owner of this share (who owes this amount)
@@ -0,0 +1,43 @@
+package ee.grouply.backend.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Downscaled JPEG renditions of an image in the upload store, named after the content hash
+ * of the original: /files/ab/cd/&lt;sha256&gt;-card.jpg. They are generated in the background
+ * after an upload, so a client should fall back to the original while one is missing.
+ */
+public enum ImageVariant {
+    THUMB(320),
+    CARD(800),
+    FULL(1920);
+
+    // longest side in pixels; smaller images keep their size
+    public final int maxSize;
+
+    private static final Pattern STORE_IMAGE =
+            Pattern.compile("^(.*/files/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64})\\.[a-z0-9]{1,10}$");
+
+    ImageVariant(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public String suffix() {
+        return "-" + name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    // variant URLs by lower-case name, or an empty map for URLs outside the upload store
+    public static Map<String, String> urlsFor(String imageUrl) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        if (imageUrl == null) return urls;
+        var m = STORE_IMAGE.matcher(imageUrl.trim());
+        if (!m.matches()) return urls;
+        for (var v : values()) {
+            urls.put(v.name().toLowerCase(Locale.ROOT), m.group(1) + v.suffix());
+        }
+        return urls;
+    }
+}
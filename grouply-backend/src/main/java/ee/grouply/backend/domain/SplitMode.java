@@ -3,5 +3,7 @@ package ee.grouply.backend.domain;
 public enum SplitMode {
     EQUAL,
     RATIO,
-    PERCENTAGE
+    PERCENTAGE,
+    FIXED,
+    UNITS
 }
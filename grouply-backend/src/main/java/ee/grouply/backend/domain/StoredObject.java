@@ -0,0 +1,58 @@
+package ee.grouply.backend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One file of the content-addressed upload store. refCount is the number of events whose
+ * imageUrl points at it; objects at zero are deleted by the store's garbage collector once
+ * they have not been touched for the grace period.
+ */
+@Entity
+@Table(name = "stored_object")
+public class StoredObject {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stored_object_seq")
+    @SequenceGenerator(name = "stored_object_seq", sequenceName = "stored_object_seq", allocationSize = 50)
+    private Long id;
+
+    // path below the upload dir, ab/cd/<sha256>.ext
+    @Column(name = "storage_key", nullable = false, unique = true, length = 200)
+    private String storageKey;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(length = 200)
+    private String contentType;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    // last upload, retain or release; garbage collection waits out the grace period from here
+    @Column(nullable = false)
+    private OffsetDateTime touchedAt = OffsetDateTime.now();
+
+    public StoredObject() {}
+
+    public StoredObject(String storageKey, String sha256, long size, String contentType) {
+        this.storageKey = storageKey;
+        this.sha256 = sha256;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public Long getId() { return id; }
+    public String getStorageKey() { return storageKey; }
+    public String getSha256() { return sha256; }
+    public long getSize() { return size; }
+    public String getContentType() { return contentType; }
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+    public OffsetDateTime getTouchedAt() { return touchedAt; }
+    public void setTouchedAt(OffsetDateTime touchedAt) { this.touchedAt = touchedAt; }
+}
@@ -0,0 +1,68 @@
+package ee.grouply.backend.domain;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.BitSet;
+
+/**
+ * A chunked upload in progress. The file is split into chunkSize pieces that may arrive in
+ * any order and be retried; received holds one bit per chunk, so a client that lost its
+ * connection can ask which chunks are still missing and send only those.
+ */
+@Entity
+@Table(name = "upload_session")
+public class UploadSession {
+    // random, so a session id cannot be guessed from another
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private String filename;
+
+    @Column(length = 200)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private int chunkSize;
+
+    @Column(nullable = false, length = 1024)
+    private byte[] received = new byte[0];
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    public UploadSession() {}
+
+    public UploadSession(String id, String filename, String contentType, long size, int chunkSize) {
+        this.id = id;
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.chunkSize = chunkSize;
+    }
+
+    public String getId() { return id; }
+    public String getFilename() { return filename; }
+    public String getContentType() { return contentType; }
+    public long getSize() { return size; }
+    public int getChunkSize() { return chunkSize; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+
+    public int chunkCount() {
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+
+    public BitSet receivedChunks() {
+        return BitSet.valueOf(received);
+    }
+
+    public void markReceived(int chunk) {
+        var bits = receivedChunks();
+        bits.set(chunk);
+        received = bits.toByteArray();
+    }
+}
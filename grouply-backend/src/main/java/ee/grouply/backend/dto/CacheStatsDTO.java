@@ -0,0 +1,8 @@
+package ee.grouply.backend.dto;
+
+public class CacheStatsDTO {
+    public long hits;
+    public long misses;
+    public int size;
+    public int maxSize;
+}
@@ -0,0 +1,21 @@
+package ee.grouply.backend.dto;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.service.SettlementService;
+
+import java.util.List;
+
+// everything the event view shows, read from one snapshot of the database
+public class EventDashboardDTO {
+    public Event event;
+    // ledger version the expenses, balances and settlements below were read at
+    public long version;
+    // first page; continue from expenses.nextCursor on /api/events/{id}/expenses/page
+    public ExpensePageDTO expenses;
+    public List<BalanceDTO> balances;
+    public List<SettlementService.Transfer> settlements;
+    // GREEDY, OPTIMAL or GREEDY_FALLBACK, as X-Settlement-Algorithm on settlements/suggested
+    public String settlementAlgorithm;
+    public List<User> users;
+}
@@ -0,0 +1,12 @@
+package ee.grouply.backend.dto;
+
+import java.util.List;
+
+public class EventPageDTO {
+    public List<EventSummaryDTO> items;
+    // zero-based
+    public int page;
+    public int size;
+    // matches over all pages
+    public long total;
+}
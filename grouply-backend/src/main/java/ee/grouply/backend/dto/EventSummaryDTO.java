@@ -0,0 +1,16 @@
+package ee.grouply.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class EventSummaryDTO {
+    public Long id;
+    public String title;
+    // start of the description, for the card; the full text is on GET /api/events/{id}
+    public String excerpt;
+    public LocalDateTime dateTime;
+    public String location;
+    public Integer capacity;
+    public String imageUrl;
+    public Map<String, String> imageVariants;
+}
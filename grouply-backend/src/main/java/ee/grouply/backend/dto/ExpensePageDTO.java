@@ -0,0 +1,9 @@
+package ee.grouply.backend.dto;
+
+import java.util.List;
+
+public class ExpensePageDTO {
+    public List<ExpenseDTO> items;
+    // opaque cursor for the next page, null when this is the last page
+    public String nextCursor;
+}
@@ -0,0 +1,23 @@
+package ee.grouply.backend.dto;
+
+import java.util.List;
+
+public class ImportReportDTO {
+    public Long eventId;
+    public long rows;
+    public long imported;
+    public long failed;
+    public int chunkSize;
+    public long chunks;
+    public long elapsedMillis;
+    public double rowsPerSecond;
+    // at most the first 1000 failures are listed; errorsTruncated tells there were more
+    public List<RowError> errors;
+    public boolean errorsTruncated;
+
+    public static class RowError {
+        // line of the body where the row starts (the CSV header is line 1)
+        public long line;
+        public String message;
+    }
+}
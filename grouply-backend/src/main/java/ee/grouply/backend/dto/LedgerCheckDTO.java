@@ -0,0 +1,16 @@
+package ee.grouply.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class LedgerCheckDTO {
+    public Long eventId;
+    public boolean consistent;
+    public List<Mismatch> mismatches;
+
+    public static class Mismatch {
+        public Long userId;
+        public BigDecimal ledger;
+        public BigDecimal recomputed;
+    }
+}
@@ -0,0 +1,19 @@
+package ee.grouply.backend.dto;
+
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+
+public class PaymentCreateDTO {
+    @NotNull
+    public Long eventId;
+
+    @NotNull
+    public Long fromUserId;
+
+    @NotNull
+    public Long toUserId;
+
+    @NotNull
+    @DecimalMin("0.01")
+    public BigDecimal amount;
+}
@@ -4,6 +4,8 @@ public class ShareDTO {
     public Long userId;
     // For PERCENTAGE: percentage value (0-100)
     // For RATIO: relative weight
+    // For UNITS: whole number of units
+    // For FIXED: exact amount owed
     // For EQUAL: ignored (server computes)
     public Double value;
-}
\ No newline at end of file
+}
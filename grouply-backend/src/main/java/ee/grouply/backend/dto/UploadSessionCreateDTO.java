@@ -0,0 +1,17 @@
+package ee.grouply.backend.dto;
+
+import jakarta.validation.constraints.*;
+
+public class UploadSessionCreateDTO {
+    @NotBlank
+    public String filename;
+
+    public String contentType;
+
+    @NotNull
+    @Min(1)
+    public Long size;
+
+    // bytes per chunk; defaults to grouply.uploads.chunk-size and is capped at max-chunk-size
+    public Integer chunkSize;
+}
@@ -0,0 +1,16 @@
+package ee.grouply.backend.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class UploadSessionDTO {
+    public String id;
+    public String filename;
+    public long size;
+    public int chunkSize;
+    public int chunkCount;
+    public long receivedBytes;
+    // offsets of the chunks still to send; PUT each one at ?offset=
+    public List<Long> missingOffsets;
+    public OffsetDateTime expiresAt;
+}
@@ -0,0 +1,25 @@
+package ee.grouply.backend.repo;
+
+import ee.grouply.backend.domain.EventBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EventBalanceRepository extends JpaRepository<EventBalance, Long> {
+    List<EventBalance> findByEventId(Long eventId);
+
+    // rows a write is about to change, locked in user id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from EventBalance b where b.eventId = :eventId and b.userId in :userIds order by b.userId")
+    List<EventBalance> findForUpdate(@Param("eventId") Long eventId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("delete from EventBalance b where b.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
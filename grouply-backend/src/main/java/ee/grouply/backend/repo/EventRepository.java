@@ -1,7 +1,58 @@
 package ee.grouply.backend.repo;
 
 import ee.grouply.backend.domain.Event;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
+    // events whose imageUrl points at the stored file, in any form UploadStore.keyOf accepts:
+    // relative or behind scheme and host, with surrounding whitespace. Keys are hex, slashes
+    // and an extension, so they carry no LIKE wildcards
+    @Query("select count(e) from Event e where trim(e.imageUrl) like concat('%/files/', :key)")
+    long countImageReferences(@Param("key") String key);
+
+    // the ids come from the query cache and the events from the entity cache; any write
+    // to the event table through Hibernate invalidates the cached result
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Event> findAll();
+
+    String SUMMARY = "select e.id as id, e.title as title, substring(e.description, 1, 160) as excerpt, " +
+            "e.dateTime as dateTime, e.location as location, e.capacity as capacity, e.imageUrl as imageUrl from Event e ";
+
+    // every filter is optional; location is a lower-case LIKE pattern. The casts give PostgreSQL
+    // a type for the null checks, which it cannot infer from a bare parameter
+    String SUMMARY_FILTER = "where (cast(:from as LocalDateTime) is null or e.dateTime >= :from) " +
+            "and (cast(:to as LocalDateTime) is null or e.dateTime < :to) " +
+            "and (cast(:location as String) is null or lower(e.location) like :location escape '\\') ";
+
+    @Query(value = SUMMARY + SUMMARY_FILTER + "order by e.dateTime asc nulls last, e.id asc",
+            countQuery = "select count(e) from Event e " + SUMMARY_FILTER)
+    Page<EventSummaryRow> findSummaries(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("location") String location,
+                                        Pageable pageable);
+
+    @Query(SUMMARY + "where e.id in :ids")
+    List<EventSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // read by the search index when it is rebuilt
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e.id as id, e.title as title, e.description as description, e.location as location, " +
+            "e.dateTime as dateTime from Event e")
+    Stream<EventTextRow> streamTextRows();
 }
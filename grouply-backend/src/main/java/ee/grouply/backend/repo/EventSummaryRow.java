@@ -0,0 +1,14 @@
+package ee.grouply.backend.repo;
+
+import java.time.LocalDateTime;
+
+// list view of an event: the description is cut down to an excerpt in SQL, never loaded whole
+public interface EventSummaryRow {
+    Long getId();
+    String getTitle();
+    String getExcerpt();
+    LocalDateTime getDateTime();
+    String getLocation();
+    Integer getCapacity();
+    String getImageUrl();
+}
@@ -0,0 +1,12 @@
+package ee.grouply.backend.repo;
+
+import java.time.LocalDateTime;
+
+// what the search index keeps of an event
+public interface EventTextRow {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    String getLocation();
+    LocalDateTime getDateTime();
+}
@@ -1,10 +1,37 @@
 package ee.grouply.backend.repo;
 
 import ee.grouply.backend.domain.Expense;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
-    List<Expense> findByEventIdOrderByCreatedAtDesc(Long eventId);
-}
\ No newline at end of file
+    @Query("select e.id as id, e.eventId as eventId, p.id as payerId, p.name as payerName, e.amount as amount, " +
+            "e.description as description, e.splitMode as splitMode, e.createdAt as createdAt " +
+            "from Expense e join e.payer p where e.eventId = :eventId order by e.createdAt desc, e.id desc")
+    List<ExpenseRow> findRowsByEventId(@Param("eventId") Long eventId);
+
+    // keyset pages on (createdAt, id) descending; first page and the pages after a cursor
+    @Query("select e.id as id, e.eventId as eventId, p.id as payerId, p.name as payerName, e.amount as amount, " +
+            "e.description as description, e.splitMode as splitMode, e.createdAt as createdAt " +
+            "from Expense e join e.payer p where e.eventId = :eventId order by e.createdAt desc, e.id desc")
+    List<ExpenseRow> findPageRows(@Param("eventId") Long eventId, Limit limit);
+
+    // the redundant createdAt <= :createdAt bounds the index range, the or alone would not
+    @Query("select e.id as id, e.eventId as eventId, p.id as payerId, p.name as payerName, e.amount as amount, " +
+            "e.description as description, e.splitMode as splitMode, e.createdAt as createdAt " +
+            "from Expense e join e.payer p where e.eventId = :eventId " +
+            "and e.createdAt <= :createdAt and (e.createdAt < :createdAt or (e.createdAt = :createdAt and e.id < :id)) " +
+            "order by e.createdAt desc, e.id desc")
+    List<ExpenseRow> findPageRowsAfter(@Param("eventId") Long eventId,
+                                       @Param("createdAt") OffsetDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Limit limit);
+
+    @Query("select e.payer.id as userId, sum(e.amount) as total from Expense e where e.eventId = :eventId group by e.payer.id")
+    List<UserAmount> sumAmountByPayer(@Param("eventId") Long eventId);
+}
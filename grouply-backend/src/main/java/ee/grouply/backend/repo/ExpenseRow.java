@@ -0,0 +1,18 @@
+package ee.grouply.backend.repo;
+
+import ee.grouply.backend.domain.SplitMode;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// flat read-only view of an expense joined with its payer's name
+public interface ExpenseRow {
+    Long getId();
+    Long getEventId();
+    Long getPayerId();
+    String getPayerName();
+    BigDecimal getAmount();
+    String getDescription();
+    SplitMode getSplitMode();
+    OffsetDateTime getCreatedAt();
+}
@@ -1,7 +1,37 @@
 package ee.grouply.backend.repo;
 
 import ee.grouply.backend.domain.ExpenseShare;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long> {
-}
\ No newline at end of file
+    @Query("select s.expense.id as expenseId, u.id as userId, u.name as userName, s.amount as amount " +
+            "from ExpenseShare s join s.user u where s.expense.eventId = :eventId order by s.id")
+    List<ShareRow> findRowsByEventId(@Param("eventId") Long eventId);
+
+    @Query("select s.expense.id as expenseId, u.id as userId, u.name as userName, s.amount as amount " +
+            "from ExpenseShare s join s.user u where s.expense.id in :expenseIds order by s.id")
+    List<ShareRow> findRowsByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
+    @Query("select s.user.id as userId, sum(s.amount) as total from ExpenseShare s where s.expense.eventId = :eventId group by s.user.id")
+    List<UserAmount> sumAmountByUser(@Param("eventId") Long eventId);
+
+    // forward-only cursor over the event's shares, oldest expense first; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e.id as expenseId, e.createdAt as createdAt, e.payer.id as payerId, e.amount as amount, " +
+            "e.description as description, e.splitMode as splitMode, s.id as shareId, s.user.id as userId, " +
+            "s.amount as shareAmount from ExpenseShare s join s.expense e where e.eventId = :eventId " +
+            "order by e.createdAt, e.id, s.id")
+    Stream<LedgerShareRow> streamLedgerRows(@Param("eventId") Long eventId);
+}
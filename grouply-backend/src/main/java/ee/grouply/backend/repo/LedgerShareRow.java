@@ -0,0 +1,19 @@
+package ee.grouply.backend.repo;
+
+import ee.grouply.backend.domain.SplitMode;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// one expense share with the columns of its expense, for the streamed ledger export
+public interface LedgerShareRow {
+    Long getExpenseId();
+    OffsetDateTime getCreatedAt();
+    Long getPayerId();
+    BigDecimal getAmount();
+    String getDescription();
+    SplitMode getSplitMode();
+    Long getShareId();
+    Long getUserId();
+    BigDecimal getShareAmount();
+}
@@ -0,0 +1,53 @@
+package ee.grouply.backend.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * event.ledger_version: bumped by every expense and payment write of the event, so
+ * responses derived from the ledger can be tagged and cached by it. Kept out of the Event
+ * entity and written with plain JDBC: a JPQL update of Event would evict the whole Event
+ * region of the second-level cache, and these bumps happen on every ledger write. Runs on
+ * the connection of the surrounding JPA transaction, if there is one.
+ */
+@Repository
+public class LedgerVersionRepository {
+    private final JdbcTemplate jdbc;
+
+    // the balances (userId -> balance) of an event as of one ledger version
+    public record Versioned(long version, Map<Long, BigDecimal> balances) {}
+
+    public LedgerVersionRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // primary key lookup of the version only, without loading the event
+    public Optional<Long> find(Long eventId) {
+        return jdbc.queryForList("select ledger_version from event where id = ?", Long.class, eventId)
+                .stream().findFirst();
+    }
+
+    // version and balance rows in one statement; empty when there is no such event
+    public Optional<Versioned> findWithBalances(Long eventId) {
+        Long[] version = {null};
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbc.query("select e.ledger_version, b.user_id, b.balance from event e " +
+                "left join event_balance b on b.event_id = e.id where e.id = ?", rs -> {
+            version[0] = rs.getLong(1);
+            long userId = rs.getLong(2);
+            if (!rs.wasNull()) balances.put(userId, rs.getBigDecimal(3));
+        }, eventId);
+        return version[0] == null ? Optional.empty() : Optional.of(new Versioned(version[0], balances));
+    }
+
+    // also row-locks the event until commit, which serializes the ledger writes of an event;
+    // 0 when there is no such event
+    public int bump(Long eventId) {
+        return jdbc.update("update event set ledger_version = ledger_version + 1 where id = ?", eventId);
+    }
+}
@@ -1,10 +1,29 @@
 package ee.grouply.backend.repo;
 
 import ee.grouply.backend.domain.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByEventId(Long eventId);
-}
\ No newline at end of file
+
+    @Query("select p.fromUser.id as fromUserId, p.toUser.id as toUserId, sum(p.amount) as total from Payment p " +
+            "where p.eventId = :eventId and p.settled = true group by p.fromUser.id, p.toUser.id")
+    List<TransferAmount> sumSettledByDirection(@Param("eventId") Long eventId);
+
+    // forward-only cursor over the event's payments, oldest first; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.id as id, p.createdAt as createdAt, p.fromUser.id as fromUserId, p.toUser.id as toUserId, " +
+            "p.amount as amount, p.settled as settled from Payment p where p.eventId = :eventId order by p.createdAt, p.id")
+    Stream<PaymentRow> streamRows(@Param("eventId") Long eventId);
+}
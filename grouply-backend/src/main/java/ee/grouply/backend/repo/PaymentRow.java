@@ -0,0 +1,14 @@
+package ee.grouply.backend.repo;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// flat read-only view of a payment, for the streamed ledger export
+public interface PaymentRow {
+    Long getId();
+    OffsetDateTime getCreatedAt();
+    Long getFromUserId();
+    Long getToUserId();
+    BigDecimal getAmount();
+    boolean getSettled();
+}
@@ -0,0 +1,11 @@
+package ee.grouply.backend.repo;
+
+import java.math.BigDecimal;
+
+// flat read-only view of an expense share joined with its user's name
+public interface ShareRow {
+    Long getExpenseId();
+    Long getUserId();
+    String getUserName();
+    BigDecimal getAmount();
+}
@@ -0,0 +1,29 @@
+package ee.grouply.backend.repo;
+
+import ee.grouply.backend.domain.StoredObject;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StoredObjectRepository extends JpaRepository<StoredObject, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StoredObject o where o.storageKey = :key")
+    Optional<StoredObject> findForUpdate(@Param("key") String storageKey);
+
+    @Modifying
+    @Query("update StoredObject o set o.refCount = o.refCount + :delta, o.touchedAt = :now where o.storageKey = :key")
+    int addToRefCount(@Param("key") String storageKey, @Param("delta") int delta, @Param("now") OffsetDateTime now);
+
+    boolean existsBySha256(String sha256);
+
+    @Query("select o.storageKey from StoredObject o where o.refCount <= 0 and o.touchedAt < :cutoff order by o.id")
+    List<String> findUnreferencedKeys(@Param("cutoff") OffsetDateTime cutoff, Limit limit);
+}
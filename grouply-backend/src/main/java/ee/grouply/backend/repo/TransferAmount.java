@@ -0,0 +1,10 @@
+package ee.grouply.backend.repo;
+
+import java.math.BigDecimal;
+
+// row of a SUM(amount) aggregate grouped by payment direction
+public interface TransferAmount {
+    Long getFromUserId();
+    Long getToUserId();
+    BigDecimal getTotal();
+}
@@ -0,0 +1,21 @@
+package ee.grouply.backend.repo;
+
+import ee.grouply.backend.domain.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UploadSession s where s.id = :id")
+    Optional<UploadSession> findForUpdate(@Param("id") String id);
+
+    @Query("select s.id from UploadSession s where s.createdAt < :cutoff")
+    List<String> findExpiredIds(@Param("cutoff") OffsetDateTime cutoff);
+}
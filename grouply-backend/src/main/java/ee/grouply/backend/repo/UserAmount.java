@@ -0,0 +1,9 @@
+package ee.grouply.backend.repo;
+
+import java.math.BigDecimal;
+
+// row of a per-user SUM(amount) aggregate
+public interface UserAmount {
+    Long getUserId();
+    BigDecimal getTotal();
+}
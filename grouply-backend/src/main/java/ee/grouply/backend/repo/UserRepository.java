@@ -1,7 +1,17 @@
 package ee.grouply.backend.repo;
 
 import ee.grouply.backend.domain.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+    // cached like EventRepository.findAll; a user write through Hibernate invalidates it
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<User> findAll();
+}
@@ -0,0 +1,196 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.EventBalance;
+import ee.grouply.backend.domain.Expense;
+import ee.grouply.backend.domain.Payment;
+import ee.grouply.backend.dto.LedgerCheckDTO;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.EventBalanceRepository;
+import ee.grouply.backend.repo.ExpenseRepository;
+import ee.grouply.backend.repo.ExpenseShareRepository;
+import ee.grouply.backend.repo.LedgerVersionRepository;
+import ee.grouply.backend.repo.PaymentRepository;
+import ee.grouply.backend.service.stream.BalancesChanged;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Per-event balance ledger. Every expense and payment write applies its deltas here
+ * inside the writing transaction, so reading an event's balances is one indexed
+ * query over its participants instead of a walk over the whole expense history.
+ *
+ * <p>Each write also bumps the ledger version of the event, which the read endpoints
+ * return as their ETag: a poll that sends the current version back gets a 304 after
+ * one primary key lookup, without reading balances or expenses.
+ */
+@Service
+public class BalanceLedgerService {
+    private final EventBalanceRepository balanceRepository;
+    private final LedgerVersionRepository ledgerVersions;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository shareRepository;
+    private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher events;
+
+    public BalanceLedgerService(EventBalanceRepository balanceRepository,
+                                LedgerVersionRepository ledgerVersions,
+                                ExpenseRepository expenseRepository,
+                                ExpenseShareRepository shareRepository,
+                                PaymentRepository paymentRepository,
+                                ApplicationEventPublisher events) {
+        this.balanceRepository = balanceRepository;
+        this.ledgerVersions = ledgerVersions;
+        this.expenseRepository = expenseRepository;
+        this.shareRepository = shareRepository;
+        this.paymentRepository = paymentRepository;
+        this.events = events;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyExpense(Expense e) {
+        applyExpenses(e.getEventId(), List.of(e));
+    }
+
+    // one ledger update for a batch of expenses of the same event (used by the bulk import)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyExpenses(Long eventId, Collection<Expense> expenses) {
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (var e : expenses) {
+            deltas.merge(e.getPayer().getId(), e.getAmount().negate(), BigDecimal::add);
+            for (var s : e.getShares()) {
+                deltas.merge(s.getUser().getId(), s.getAmount(), BigDecimal::add);
+            }
+        }
+        applyDeltas(eventId, deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyPayment(Payment p) {
+        if (!p.isSettled()) return;
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        deltas.merge(p.getFromUser().getId(), p.getAmount().negate(), BigDecimal::add);
+        deltas.merge(p.getToUser().getId(), p.getAmount(), BigDecimal::add);
+        applyDeltas(p.getEventId(), deltas);
+    }
+
+    /**
+     * Adds the deltas to the ledger rows of the event, creating missing rows. Existing rows
+     * are loaded and locked with one query and changed in memory, so the updates and
+     * inserts go out as JDBC batches on flush.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDeltas(Long eventId, Map<Long, BigDecimal> deltas) {
+        if (deltas.isEmpty()) return;
+        // first, so concurrent writers of the event queue on the event row before the balance rows
+        bumpVersion(eventId);
+        Map<Long, BigDecimal> pending = new TreeMap<>(deltas);
+        Map<Long, BigDecimal> changed = new HashMap<>();
+        for (var row : balanceRepository.findForUpdate(eventId, pending.keySet())) {
+            row.setBalance(row.getBalance().add(pending.remove(row.getUserId())));
+            changed.put(row.getUserId(), row.getBalance());
+        }
+        List<EventBalance> created = new ArrayList<>(pending.size());
+        for (var d : pending.entrySet()) {
+            created.add(new EventBalance(eventId, d.getKey(), d.getValue()));
+            changed.put(d.getKey(), d.getValue());
+        }
+        balanceRepository.saveAll(created);
+        publish(eventId, changed);
+    }
+
+    // expense.event_id has no foreign key, so a missing event has to be caught here
+    private void bumpVersion(Long eventId) {
+        if (ledgerVersions.bump(eventId) == 0) {
+            throw new NotFoundException("Event with id " + eventId + " not found");
+        }
+    }
+
+    // announces the new balances to event streams; delivered only if the transaction commits
+    private void publish(Long eventId, Map<Long, BigDecimal> balances) {
+        long version = ledgerVersions.find(eventId).orElse(0L);
+        events.publishEvent(new BalancesChanged(eventId, version, balances));
+    }
+
+    // null if the event does not exist
+    public Long version(Long eventId) {
+        return ledgerVersions.find(eventId).orElse(null);
+    }
+
+    public Map<Long, BigDecimal> balancesForEvent(Long eventId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (var b : balanceRepository.findByEventId(eventId)) {
+            balances.put(b.getUserId(), b.getBalance());
+        }
+        return balances;
+    }
+
+    /**
+     * Full recompute from the expense and payment history. Only used to rebuild
+     * or verify the ledger, never on the read path. The sums are grouped in SQL,
+     * so this moves a few rows per participant instead of whole entity graphs.
+     */
+    public Map<Long, BigDecimal> recomputeBalancesForEvent(Long eventId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+
+        // payer paid the whole amount, so their balance goes down
+        for (var row : expenseRepository.sumAmountByPayer(eventId)) {
+            balances.merge(row.getUserId(), row.getTotal().negate(), BigDecimal::add);
+        }
+        // each participant owes their share
+        for (var row : shareRepository.sumAmountByUser(eventId)) {
+            balances.merge(row.getUserId(), row.getTotal(), BigDecimal::add);
+        }
+        // settled payments move money from one user to another
+        for (var row : paymentRepository.sumSettledByDirection(eventId)) {
+            balances.merge(row.getFromUserId(), row.getTotal().negate(), BigDecimal::add);
+            balances.merge(row.getToUserId(), row.getTotal(), BigDecimal::add);
+        }
+
+        return balances;
+    }
+
+    @Transactional
+    public Map<Long, BigDecimal> rebuild(Long eventId) {
+        bumpVersion(eventId);
+        var balances = recomputeBalancesForEvent(eventId);
+        balanceRepository.deleteByEventId(eventId);
+        List<EventBalance> rows = new ArrayList<>(balances.size());
+        for (var b : new TreeMap<>(balances).entrySet()) {
+            rows.add(new EventBalance(eventId, b.getKey(), b.getValue()));
+        }
+        balanceRepository.saveAll(rows);
+        publish(eventId, balances);
+        return balances;
+    }
+
+    public LedgerCheckDTO verify(Long eventId) {
+        var ledger = balancesForEvent(eventId);
+        var recomputed = recomputeBalancesForEvent(eventId);
+
+        Set<Long> userIds = new TreeSet<>(ledger.keySet());
+        userIds.addAll(recomputed.keySet());
+
+        var out = new LedgerCheckDTO();
+        out.eventId = eventId;
+        out.mismatches = new ArrayList<>();
+        for (var uid : userIds) {
+            var l = ledger.getOrDefault(uid, BigDecimal.ZERO);
+            var r = recomputed.getOrDefault(uid, BigDecimal.ZERO);
+            if (l.compareTo(r) != 0) {
+                var m = new LedgerCheckDTO.Mismatch();
+                m.userId = uid;
+                m.ledger = l;
+                m.recomputed = r;
+                out.mismatches.add(m);
+            }
+        }
+        out.consistent = out.mismatches.isEmpty();
+        return out;
+    }
+}
@@ -0,0 +1,65 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.dto.EventDashboardDTO;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.LedgerVersionRepository;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.settlement.SettlementMode;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The event view in one go: the event, the first expense page, balances, suggested
+ * transfers and the users. The balance map is read once, together with the ledger version,
+ * and feeds both the balances and the settlement plan; user names come from the user list
+ * that is returned anyway. The event and the user list are usually second-level cache hits.
+ */
+@Service
+public class EventDashboardService {
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final LedgerVersionRepository ledgerVersions;
+    private final ExpenseService expenseService;
+    private final SettlementService settlementService;
+
+    public EventDashboardService(EventRepository eventRepository, UserRepository userRepository,
+                                 LedgerVersionRepository ledgerVersions, ExpenseService expenseService,
+                                 SettlementService settlementService) {
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.ledgerVersions = ledgerVersions;
+        this.expenseService = expenseService;
+        this.settlementService = settlementService;
+    }
+
+    // repeatable read: every section, and the version, comes from the same snapshot
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public EventDashboardDTO load(Long eventId, SettlementMode mode, Integer expenseLimit) {
+        // one statement for the existence check, the version and the balance map
+        var ledger = ledgerVersions.findWithBalances(eventId)
+                .orElseThrow(() -> new NotFoundException("Event with id " + eventId + " not found"));
+        var out = new EventDashboardDTO();
+        out.version = ledger.version();
+        out.event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new NotFoundException("Event with id " + eventId + " not found"));
+        out.users = userRepository.findAll();
+        Map<Long, String> names = new HashMap<>();
+        for (User u : out.users) {
+            names.put(u.getId(), u.getName());
+        }
+
+        out.balances = settlementService.balancesOf(ledger.balances(), names);
+        var plan = settlementService.suggestSettlements(ledger.balances(), mode);
+        out.settlements = plan.transfers;
+        out.settlementAlgorithm = plan.algorithm;
+
+        out.expenses = expenseService.listPageByEvent(eventId, null, expenseLimit);
+        return out;
+    }
+}
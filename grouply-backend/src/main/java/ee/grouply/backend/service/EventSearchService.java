@@ -0,0 +1,97 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.ImageVariant;
+import ee.grouply.backend.dto.EventPageDTO;
+import ee.grouply.backend.dto.EventSummaryDTO;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.EventSummaryRow;
+import ee.grouply.backend.service.search.EventSearchIndex;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Event listing. Without search text the filters and paging run in SQL; with it the
+ * index picks and orders the matching ids and only the page's rows are read.
+ */
+@Service
+public class EventSearchService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final EventRepository eventRepository;
+    private final EventSearchIndex index;
+
+    public EventSearchService(EventRepository eventRepository, EventSearchIndex index) {
+        this.eventRepository = eventRepository;
+        this.index = index;
+    }
+
+    /** from and to are inclusive days; every parameter is optional. */
+    @Transactional(readOnly = true)
+    public EventPageDTO search(String query, LocalDate from, LocalDate to, String location, Integer page, Integer size) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNo = page == null ? 0 : Math.max(0, page);
+        var start = from == null ? null : from.atStartOfDay();
+        LocalDateTime end = to == null ? null : to.plusDays(1).atStartOfDay();
+        var place = location == null || location.isBlank() ? null : location.trim();
+
+        var out = new EventPageDTO();
+        out.page = pageNo;
+        out.size = pageSize;
+        if (EventSearchIndex.terms(query).isEmpty()) {
+            var pattern = place == null ? null : "%" + escapeLike(place.toLowerCase(Locale.ROOT)) + "%";
+            var rows = eventRepository.findSummaries(start, end, pattern, PageRequest.of(pageNo, pageSize));
+            out.items = rows.getContent().stream().map(EventSearchService::toDto).toList();
+            out.total = rows.getTotalElements();
+            return out;
+        }
+
+        var ids = index.search(query, start, end, place);
+        out.total = ids.size();
+        long offset = (long) pageNo * pageSize;
+        if (offset >= ids.size()) {
+            out.items = List.of();
+            return out;
+        }
+        var slice = ids.subList((int) offset, (int) Math.min(ids.size(), offset + pageSize));
+        var byId = eventRepository.findSummariesByIdIn(slice).stream()
+                .collect(Collectors.toMap(EventSummaryRow::getId, Function.identity()));
+        List<EventSummaryDTO> items = new ArrayList<>(slice.size());
+        for (var id : slice) {
+            // gone since it was indexed (deleted on another instance)
+            var row = byId.get(id);
+            if (row != null) items.add(toDto(row));
+        }
+        out.items = items;
+        return out;
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static EventSummaryDTO toDto(EventSummaryRow row) {
+        var d = new EventSummaryDTO();
+        d.id = row.getId();
+        d.title = row.getTitle();
+        d.excerpt = row.getExcerpt();
+        d.dateTime = row.getDateTime();
+        d.location = row.getLocation();
+        d.capacity = row.getCapacity();
+        d.imageUrl = row.getImageUrl();
+        d.imageVariants = ImageVariant.urlsFor(row.getImageUrl());
+        return d;
+    }
+}
@@ -0,0 +1,71 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.service.search.EventDeleted;
+import ee.grouply.backend.service.search.EventSaved;
+import ee.grouply.backend.service.storage.UploadStore;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+/**
+ * Event writes. The event row and the reference counts of its stored image change in one
+ * transaction, so a failed write cannot leave a count behind that no event row matches;
+ * the search index follows once the transaction commits.
+ */
+@Service
+public class EventService {
+    private final EventRepository eventRepository;
+    private final UploadStore uploadStore;
+    private final ApplicationEventPublisher events;
+
+    public EventService(EventRepository eventRepository, UploadStore uploadStore, ApplicationEventPublisher events) {
+        this.eventRepository = eventRepository;
+        this.uploadStore = uploadStore;
+        this.events = events;
+    }
+
+    @Transactional
+    public Event create(Event event) {
+        var saved = eventRepository.save(event);
+        // stored images are reference counted so unused ones can be garbage collected
+        uploadStore.retain(saved.getImageUrl());
+        events.publishEvent(new EventSaved(saved));
+        return saved;
+    }
+
+    @Transactional
+    public Event update(Long id, Event updated) {
+        var e = find(id);
+        var oldImageUrl = e.getImageUrl();
+        e.setTitle(updated.getTitle());
+        e.setDescription(updated.getDescription());
+        e.setDateTime(updated.getDateTime());
+        e.setLocation(updated.getLocation());
+        e.setCapacity(updated.getCapacity());
+        e.setImageUrl(updated.getImageUrl());
+        var saved = eventRepository.save(e);
+        if (!Objects.equals(oldImageUrl, saved.getImageUrl())) {
+            uploadStore.retain(saved.getImageUrl());
+            uploadStore.release(oldImageUrl);
+        }
+        events.publishEvent(new EventSaved(saved));
+        return saved;
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        var event = find(id);
+        eventRepository.delete(event);
+        uploadStore.release(event.getImageUrl());
+        events.publishEvent(new EventDeleted(id));
+    }
+
+    private Event find(Long id) {
+        return eventRepository.findById(id).orElseThrow(() -> new NotFoundException("Event with id " + id + " not found"));
+    }
+}
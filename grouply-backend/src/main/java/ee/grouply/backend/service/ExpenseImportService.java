@@ -0,0 +1,386 @@
+package ee.grouply.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.grouply.backend.domain.Expense;
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.dto.ExpenseCreateDTO;
+import ee.grouply.backend.dto.ImportReportDTO;
+import ee.grouply.backend.dto.ShareDTO;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.ExpenseRepository;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.stream.ExpensesImported;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Bulk expense import from CSV or NDJSON. The body is read one row at a time and rows are
+ * committed in chunks: each chunk is one transaction with batched inserts and a single
+ * ledger update, so the cost per row does not include a request, a transaction and a
+ * user lookup of its own.
+ *
+ * <p>CSV needs a header row with the columns payerId, amount, splitMode, shares and an
+ * optional description. Shares are {@code userId[:value]} entries separated by {@code ;},
+ * e.g. {@code 2:60;3:40}. NDJSON has one {@link ExpenseCreateDTO} object per line; its
+ * eventId may be left out.
+ */
+@Service
+public class ExpenseImportService {
+    public enum Format { CSV, NDJSON }
+
+    static final int MAX_CHUNK_SIZE = 5000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ExpenseService expenseService;
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final BalanceLedgerService ledger;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final int defaultChunkSize;
+
+    public ExpenseImportService(ExpenseService expenseService,
+                                ExpenseRepository expenseRepository,
+                                UserRepository userRepository,
+                                EventRepository eventRepository,
+                                BalanceLedgerService ledger,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher events,
+                                @Value("${grouply.import.chunk-size:500}") int defaultChunkSize) {
+        this.expenseService = expenseService;
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+        this.ledger = ledger;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    private record Row(long line, ExpenseCreateDTO dto) {}
+
+    public ImportReportDTO importExpenses(Long eventId, Reader body, Format format, Integer chunkSize) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new NotFoundException("Event with id " + eventId + " not found");
+        }
+        int size = Math.max(1, Math.min(chunkSize == null ? defaultChunkSize : chunkSize, MAX_CHUNK_SIZE));
+        long started = System.nanoTime();
+
+        var report = new ImportReportDTO();
+        report.eventId = eventId;
+        report.chunkSize = size;
+        report.errors = new ArrayList<>();
+
+        var reader = new BufferedReader(body);
+        List<Row> chunk = new ArrayList<>(size);
+        try {
+            var rows = format == Format.NDJSON ? new NdjsonRows(reader) : new CsvRows(reader);
+            while (true) {
+                ExpenseCreateDTO dto;
+                try {
+                    dto = rows.next();
+                    if (dto == null) break;
+                } catch (IllegalArgumentException ex) {
+                    report.rows++;
+                    fail(report, rows.line(), ex.getMessage());
+                    continue;
+                }
+                report.rows++;
+                var problem = validate(eventId, dto);
+                if (problem != null) {
+                    fail(report, rows.line(), problem);
+                    continue;
+                }
+                chunk.add(new Row(rows.line(), dto));
+                if (chunk.size() == size) {
+                    commitChunk(eventId, chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) commitChunk(eventId, chunk, report);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            // chunks commit on their own, so whatever got in is announced even if the body broke off
+            if (report.imported > 0) events.publishEvent(new ExpensesImported(eventId, report.imported));
+        }
+        // user and split failures are found at commit time, after later rows were already parsed
+        report.errors.sort(Comparator.comparingLong(e -> e.line));
+
+        report.elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        report.rowsPerSecond = report.rows * 1e9 / Math.max(1, System.nanoTime() - started);
+        return report;
+    }
+
+    private String validate(Long eventId, ExpenseCreateDTO dto) {
+        if (dto.eventId == null) {
+            dto.eventId = eventId;
+        } else if (!dto.eventId.equals(eventId)) {
+            return "eventId " + dto.eventId + " does not match the import event";
+        }
+        var violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            var messages = new TreeSet<String>();
+            for (var v : violations) messages.add(v.getPropertyPath() + " " + v.getMessage());
+            return String.join("; ", messages);
+        }
+        return null;
+    }
+
+    // the users of a row are checked against those of its whole chunk, found with one query
+    private static String missingUser(ExpenseCreateDTO dto, Set<Long> known) {
+        if (!known.contains(dto.payerId)) return "Payer not found";
+        for (var s : dto.shares) {
+            if (s.userId == null || !known.contains(s.userId)) return "One or more participants not found";
+        }
+        return null;
+    }
+
+    private Set<Long> knownUsers(List<Row> chunk) {
+        Set<Long> ids = new HashSet<>();
+        for (var row : chunk) {
+            ids.add(row.dto().payerId);
+            for (var s : row.dto().shares) {
+                if (s.userId != null) ids.add(s.userId);
+            }
+        }
+        Set<Long> known = new HashSet<>();
+        for (var u : userRepository.findAllById(ids)) known.add(u.getId());
+        return known;
+    }
+
+    private void commitChunk(Long eventId, List<Row> chunk, ImportReportDTO report) {
+        report.chunks++;
+        Set<Long> rejected = new HashSet<>();
+        try {
+            int imported = tx.execute(status -> {
+                List<Expense> expenses = new ArrayList<>(chunk.size());
+                var known = knownUsers(chunk);
+                for (var row : chunk) {
+                    var missing = missingUser(row.dto(), known);
+                    if (missing != null) {
+                        rejected.add(row.line());
+                        fail(report, row.line(), missing);
+                        continue;
+                    }
+                    try {
+                        expenses.add(expenseService.buildExpense(row.dto()));
+                    } catch (IllegalArgumentException | ArithmeticException ex) {
+                        // the split was rejected, e.g. percentages not adding up to 100
+                        rejected.add(row.line());
+                        fail(report, row.line(), ex.getMessage());
+                    }
+                }
+                expenseRepository.saveAll(expenses);
+                ledger.applyExpenses(eventId, expenses);
+                // with open-in-view the request keeps one persistence context across chunks; empty it
+                entityManager.flush();
+                entityManager.clear();
+                return expenses.size();
+            });
+            report.imported += imported;
+        } catch (RuntimeException ex) {
+            // the chunk was rolled back as a whole; rows rejected before saving are already reported
+            for (var row : chunk) {
+                if (!rejected.contains(row.line())) fail(report, row.line(), "Chunk rolled back: " + rootMessage(ex));
+            }
+        }
+    }
+
+    private static void fail(ImportReportDTO report, long line, String message) {
+        report.failed++;
+        if (report.errors.size() < MAX_REPORTED_ERRORS) {
+            var e = new ImportReportDTO.RowError();
+            e.line = line;
+            e.message = message;
+            report.errors.add(e);
+        } else {
+            report.errorsTruncated = true;
+        }
+    }
+
+    private static String rootMessage(Throwable ex) {
+        while (ex.getCause() != null && ex.getCause() != ex) ex = ex.getCause();
+        return ex.getMessage();
+    }
+
+    // row sources; next() returns null at the end and throws IllegalArgumentException for a malformed row
+    private interface Rows {
+        ExpenseCreateDTO next() throws IOException;
+
+        // line the last row read starts on
+        long line();
+    }
+
+    private final class NdjsonRows implements Rows {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        public long line() {
+            return line;
+        }
+
+        public ExpenseCreateDTO next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) return null;
+                line++;
+            } while (text.isBlank());
+            try {
+                return objectMapper.readValue(text, ExpenseCreateDTO.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvRows implements Rows {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line;
+        private long start;
+
+        // a bad header fails the whole import rather than every row
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            var header = readRecord();
+            if (header == null) throw new IllegalArgumentException("CSV body is empty");
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (var required : List.of("payerid", "amount", "splitmode", "shares")) {
+                if (!columns.containsKey(required)) throw new IllegalArgumentException("CSV header is missing column " + required);
+            }
+        }
+
+        public long line() {
+            return start;
+        }
+
+        public ExpenseCreateDTO next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) return null;
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            var dto = new ExpenseCreateDTO();
+            try {
+                var payer = field(fields, "payerid");
+                dto.payerId = payer.isEmpty() ? null : Long.valueOf(payer);
+                var amount = field(fields, "amount");
+                dto.amount = amount.isEmpty() ? null : new BigDecimal(amount);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("payerId and amount must be numbers");
+            }
+            var description = field(fields, "description");
+            dto.description = description.isEmpty() ? null : description;
+            var mode = field(fields, "splitmode");
+            try {
+                dto.splitMode = mode.isEmpty() ? null : SplitMode.valueOf(mode.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown split mode " + mode);
+            }
+            dto.shares = parseShares(field(fields, "shares"));
+            return dto;
+        }
+
+        private String field(List<String> fields, String name) {
+            Integer i = columns.get(name);
+            return i == null || i >= fields.size() ? "" : fields.get(i).trim();
+        }
+
+        private static List<ShareDTO> parseShares(String text) {
+            List<ShareDTO> shares = new ArrayList<>();
+            if (text.isEmpty()) return shares;
+            for (var part : text.split(";")) {
+                if (part.isBlank()) continue;
+                var s = new ShareDTO();
+                int colon = part.indexOf(':');
+                try {
+                    s.userId = Long.valueOf(part.substring(0, colon < 0 ? part.length() : colon).trim());
+                    if (colon >= 0) s.value = Double.valueOf(part.substring(colon + 1).trim());
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Malformed share " + part.trim());
+                }
+                shares.add(s);
+            }
+            return shares;
+        }
+
+        // one RFC 4180 record; a quoted field may span lines
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) return null;
+            start = ++line;
+            List<String> fields = new ArrayList<>();
+            var current = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) break;
+                    // newline inside quotes belongs to the field
+                    text = reader.readLine();
+                    if (text == null) throw new IllegalArgumentException("Unterminated quoted field");
+                    line++;
+                    current.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < text.length() && text.charAt(i) == '"') {
+                            current.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
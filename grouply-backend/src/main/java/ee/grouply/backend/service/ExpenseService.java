@@ -3,38 +3,78 @@ package ee.grouply.backend.service;
 import ee.grouply.backend.domain.*;
 import ee.grouply.backend.dto.*;
 import ee.grouply.backend.repo.*;
+import ee.grouply.backend.service.split.SplitEngine;
+import ee.grouply.backend.service.stream.ExpenseAdded;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class ExpenseService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final ExpenseRepository expenseRepository;
-    private final PaymentRepository paymentRepository;
+    private final ExpenseShareRepository shareRepository;
+    private final BalanceLedgerService ledger;
+    private final UserLookup userLookup;
+    private final SplitEngine splitEngine;
+    private final ApplicationEventPublisher events;
+    private final HotPathMetrics metrics;
 
     public ExpenseService(UserRepository userRepository,
                           ExpenseRepository expenseRepository,
                           ExpenseShareRepository shareRepository,
-                          PaymentRepository paymentRepository) {
+                          BalanceLedgerService ledger,
+                          UserLookup userLookup,
+                          SplitEngine splitEngine,
+                          ApplicationEventPublisher events,
+                          HotPathMetrics metrics) {
         this.userRepository = userRepository;
         this.expenseRepository = expenseRepository;
-        this.paymentRepository = paymentRepository;
+        this.shareRepository = shareRepository;
+        this.ledger = ledger;
+        this.userLookup = userLookup;
+        this.splitEngine = splitEngine;
+        this.events = events;
+        this.metrics = metrics;
     }
 
     @Transactional
     public Expense createExpense(ExpenseCreateDTO dto) {
-        var payer = userRepository.findById(dto.payerId)
-                .orElseThrow(() -> new IllegalArgumentException("Payer not found"));
-        // validate participants exist
+        // validate payer and participants exist with one batched lookup
         var userIds = dto.shares.stream().map(s -> s.userId).collect(Collectors.toSet());
-        var users = userRepository.findAllById(userIds);
-        if (users.size() != userIds.size()) throw new IllegalArgumentException("One or more participants not found");
+        var ids = new HashSet<>(userIds);
+        ids.add(dto.payerId);
+        var known = userLookup.namesById(ids);
+        if (!known.containsKey(dto.payerId)) throw new IllegalArgumentException("Payer not found");
+        if (!known.keySet().containsAll(userIds)) throw new IllegalArgumentException("One or more participants not found");
+
+        var saved = expenseRepository.save(buildExpense(dto));
+        // streamed to the event's subscribers once the transaction commits, ahead of the balances
+        events.publishEvent(new ExpenseAdded(saved.getEventId(), toDto(saved, known)));
+        // shares cascade persisted; ledger is updated in the same transaction
+        ledger.applyExpense(saved);
+        return saved;
+    }
+
+    /**
+     * Builds the expense with its share rows split in cents. The payer and participants
+     * must already be known to exist; they are only referenced by id here.
+     */
+    Expense buildExpense(ExpenseCreateDTO dto) {
+        var payer = userRepository.getReferenceById(dto.payerId);
 
         Expense e = new Expense();
         e.setEventId(dto.eventId);
@@ -43,115 +83,149 @@ public class ExpenseService {
         e.setDescription(dto.description);
         e.setSplitMode(dto.splitMode);
 
-        // compute share amounts
-        List<ExpenseShare> shares = new ArrayList<>();
-        if (dto.splitMode == SplitMode.EQUAL) {
-            int n = dto.shares.size();
-            BigDecimal base = dto.amount.divide(BigDecimal.valueOf(n), 10, RoundingMode.HALF_UP);
-            // round to cents and adjust last share for rounding diff
-            BigDecimal totalAssigned = BigDecimal.ZERO;
-            for (int i = 0; i < dto.shares.size(); i++) {
-                var s = dto.shares.get(i);
-                BigDecimal amt = base.setScale(2, RoundingMode.HALF_UP);
-                if (i == dto.shares.size() - 1) {
-                    amt = dto.amount.subtract(totalAssigned).setScale(2, RoundingMode.HALF_UP);
-                }
-                var share = new ExpenseShare();
-                share.setShareValue(null);
-                share.setAmount(amt);
-                share.setUser(userRepository.getReferenceById(s.userId));
-                share.setExpense(e);
-                shares.add(share);
-                totalAssigned = totalAssigned.add(amt);
-            }
-        } else if (dto.splitMode == SplitMode.PERCENTAGE) {
-            BigDecimal totalAssigned = BigDecimal.ZERO;
-            for (int i = 0; i < dto.shares.size(); i++) {
-                var s = dto.shares.get(i);
-                if (s.value == null) throw new IllegalArgumentException("Missing percentage value for share");
-                BigDecimal pct = BigDecimal.valueOf(s.value).divide(BigDecimal.valueOf(100), 10, RoundingMode.HALF_UP);
-                BigDecimal amt = dto.amount.multiply(pct);
-                amt = amt.setScale(2, RoundingMode.HALF_UP);
-                // last share adjust
-                if (i == dto.shares.size() - 1) {
-                    amt = dto.amount.subtract(totalAssigned).setScale(2, RoundingMode.HALF_UP);
-                }
-                var share = new ExpenseShare();
-                share.setShareValue(s.value);
-                share.setAmount(amt);
-                share.setUser(userRepository.getReferenceById(s.userId));
-                share.setExpense(e);
-                shares.add(share);
-                totalAssigned = totalAssigned.add(amt);
-            }
-        } else if (dto.splitMode == SplitMode.RATIO) {
-            double totalRatio = dto.shares.stream().mapToDouble(s -> s.value == null ? 0.0 : s.value).sum();
-            if (totalRatio <= 0) throw new IllegalArgumentException("Invalid ratio totals");
-            BigDecimal totalAssigned = BigDecimal.ZERO;
-            for (int i = 0; i < dto.shares.size(); i++) {
-                var s = dto.shares.get(i);
-                double v = s.value == null ? 0.0 : s.value;
-                BigDecimal frac = BigDecimal.valueOf(v).divide(BigDecimal.valueOf(totalRatio), 10, RoundingMode.HALF_UP);
-                BigDecimal amt = dto.amount.multiply(frac).setScale(2, RoundingMode.HALF_UP);
-                if (i == dto.shares.size() - 1) {
-                    amt = dto.amount.subtract(totalAssigned).setScale(2, RoundingMode.HALF_UP);
-                }
-                var share = new ExpenseShare();
-                share.setShareValue(s.value);
-                share.setAmount(amt);
-                share.setUser(userRepository.getReferenceById(s.userId));
-                share.setExpense(e);
-                shares.add(share);
-                totalAssigned = totalAssigned.add(amt);
-            }
+        // compute share amounts in cents; the strategy guarantees they add up to the total
+        long totalCents = e.getAmount().movePointRight(2).longValueExact();
+        long[] cents = splitEngine.split(dto.splitMode, totalCents, dto.shares);
+        List<ExpenseShare> shares = new ArrayList<>(cents.length);
+        for (int i = 0; i < cents.length; i++) {
+            var s = dto.shares.get(i);
+            var share = new ExpenseShare();
+            share.setShareValue(dto.splitMode == SplitMode.EQUAL ? null : s.value);
+            share.setAmount(BigDecimal.valueOf(cents[i], 2));
+            share.setUser(userRepository.getReferenceById(s.userId));
+            share.setExpense(e);
+            shares.add(share);
+        }
+        e.setShares(shares);
+        return e;
+    }
+
+    /**
+     * Expense views of an event, newest first. Built from two flat projection queries
+     * (expenses with payer names, shares with user names) so no entities are loaded
+     * and the statement count does not grow with the number of expenses.
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseDTO> listByEvent(Long eventId) {
+        Map<Long, ExpenseDTO> byId = new LinkedHashMap<>();
+        for (var row : expenseRepository.findRowsByEventId(eventId)) {
+            byId.put(row.getId(), toDto(row));
+        }
+        if (byId.isEmpty()) return new ArrayList<>();
+
+        for (var row : shareRepository.findRowsByEventId(eventId)) {
+            var x = byId.get(row.getExpenseId());
+            if (x != null) x.shares.add(toShareView(row));
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * One page of the event's expenses, newest first, keyed on (createdAt, id) so the
+     * cost of a page does not depend on how deep into the history it is.
+     */
+    @Transactional(readOnly = true)
+    public ExpensePageDTO listPageByEvent(Long eventId, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // fetch one extra row to learn whether another page follows
+        var fetch = Limit.of(size + 1);
+        List<ExpenseRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = expenseRepository.findPageRows(eventId, fetch);
         } else {
-            throw new IllegalArgumentException("Unsupported split mode");
+            var c = decodeCursor(cursor);
+            rows = expenseRepository.findPageRowsAfter(eventId, c.createdAt(), c.id(), fetch);
         }
 
-        e.setShares(shares);
-        var saved = expenseRepository.save(e);
-        // shares cascade persisted; but ensure shareRepository aware
-        return saved;
+        var page = new ExpensePageDTO();
+        boolean hasMore = rows.size() > size;
+        if (hasMore) rows = rows.subList(0, size);
+
+        Map<Long, ExpenseDTO> byId = new LinkedHashMap<>();
+        for (var row : rows) {
+            byId.put(row.getId(), toDto(row));
+        }
+        if (!byId.isEmpty()) {
+            for (var row : shareRepository.findRowsByExpenseIds(byId.keySet())) {
+                var x = byId.get(row.getExpenseId());
+                if (x != null) x.shares.add(toShareView(row));
+            }
+        }
+        page.items = new ArrayList<>(byId.values());
+        if (hasMore) {
+            var last = rows.get(rows.size() - 1);
+            page.nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return page;
     }
 
-    public List<Expense> listByEvent(Long eventId) {
-        return expenseRepository.findByEventIdOrderByCreatedAtDesc(eventId);
+    private record Cursor(OffsetDateTime createdAt, Long id) {}
+
+    private static String encodeCursor(OffsetDateTime createdAt, Long id) {
+        var raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    public Map<Long, BigDecimal> computeBalancesForEvent(Long eventId) {
-    Map<Long, BigDecimal> balances = new HashMap<>();
-    
-    // Get all expenses for this event
-    var expenses = expenseRepository.findByEventIdOrderByCreatedAtDesc(eventId);
-    
-    for (var e : expenses) {
-        var payerId = e.getPayer().getId();
-        // Change: payer gets positive amount (they paid more than they should)
-        balances.putIfAbsent(payerId, BigDecimal.ZERO);
-        balances.put(payerId, balances.get(payerId).subtract(e.getAmount()));
-        
-        // Each participant's share is a negative amount (they owe money)
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(OffsetDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static ExpenseDTO toDto(ExpenseRow row) {
+        var x = new ExpenseDTO();
+        x.id = row.getId();
+        x.eventId = row.getEventId();
+        x.payerId = row.getPayerId();
+        x.payerName = row.getPayerName();
+        x.amount = row.getAmount();
+        x.description = row.getDescription();
+        x.splitMode = row.getSplitMode().name();
+        x.createdAt = row.getCreatedAt();
+        x.shares = new ArrayList<>();
+        return x;
+    }
+
+    // the view of a just-built expense; names come from the lookup that validated its users
+    private static ExpenseDTO toDto(Expense e, Map<Long, String> names) {
+        var x = new ExpenseDTO();
+        x.id = e.getId();
+        x.eventId = e.getEventId();
+        x.payerId = e.getPayer().getId();
+        x.payerName = names.get(x.payerId);
+        x.amount = e.getAmount();
+        x.description = e.getDescription();
+        x.splitMode = e.getSplitMode().name();
+        x.createdAt = e.getCreatedAt();
+        x.shares = new ArrayList<>();
         for (var s : e.getShares()) {
-            var uid = s.getUser().getId();
-            balances.putIfAbsent(uid, BigDecimal.ZERO);
-            balances.put(uid, balances.get(uid).add(s.getAmount()));
+            var sv = new ExpenseDTO.ShareView();
+            sv.userId = s.getUser().getId();
+            sv.userName = names.get(sv.userId);
+            sv.amount = s.getAmount();
+            x.shares.add(sv);
         }
+        return x;
     }
-    
-    // Payments reduce balances
-    var payments = paymentRepository.findByEventId(eventId);
-    for (var p : payments) {
-        if (!p.isSettled()) continue;
-        var from = p.getFromUser().getId();
-        var to = p.getToUser().getId();
-        balances.putIfAbsent(from, BigDecimal.ZERO);
-        balances.putIfAbsent(to, BigDecimal.ZERO);
-        // From user reduces their negative balance
-        balances.put(from, balances.get(from).subtract(p.getAmount()));
-        // To user reduces their positive balance
-        balances.put(to, balances.get(to).add(p.getAmount()));
+
+    private static ExpenseDTO.ShareView toShareView(ShareRow row) {
+        var sv = new ExpenseDTO.ShareView();
+        sv.userId = row.getUserId();
+        sv.userName = row.getUserName();
+        sv.amount = row.getAmount();
+        return sv;
+    }
+
+    // O(participants): reads the ledger maintained by createExpense / createPayment
+    public Map<Long, BigDecimal> computeBalancesForEvent(Long eventId) {
+        var sample = metrics.start();
+        var balances = ledger.balancesForEvent(eventId);
+        metrics.stop(sample, "grouply.balances.compute",
+                Tags.of("participants", HotPathMetrics.countBucket(balances.size())));
+        return balances;
     }
-    
-    return balances;
-}
 }
\ No newline at end of file
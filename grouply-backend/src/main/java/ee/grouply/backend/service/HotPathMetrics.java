@@ -0,0 +1,50 @@
+package ee.grouply.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers of the hot paths (expense create, balances, settlement, upload), published with
+ * percentile histograms so latency can be compared across split modes and input sizes.
+ * Sizes are tagged as buckets, never as raw numbers, to keep the number of series small.
+ */
+@Component
+public class HotPathMetrics {
+    private final MeterRegistry registry;
+
+    public HotPathMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String name, Tags tags) {
+        sample.stop(Timer.builder(name).tags(tags).publishPercentileHistogram().register(registry));
+    }
+
+    // participants, expenses, ...
+    public static String countBucket(int n) {
+        if (n <= 2) return "0-2";
+        if (n <= 5) return "3-5";
+        if (n <= 10) return "6-10";
+        if (n <= 20) return "11-20";
+        if (n <= 50) return "21-50";
+        if (n <= 100) return "51-100";
+        return "100+";
+    }
+
+    public static String sizeBucket(long bytes) {
+        if (bytes < 100 * 1024) return "<100KB";
+        if (bytes < 1024 * 1024) return "<1MB";
+        if (bytes < 10 * 1024 * 1024) return "<10MB";
+        return "10MB+";
+    }
+
+    public static String outcome(boolean ok) {
+        return ok ? "success" : "error";
+    }
+}
@@ -0,0 +1,222 @@
+package ee.grouply.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.ExpenseShareRepository;
+import ee.grouply.backend.repo.LedgerShareRow;
+import ee.grouply.backend.repo.PaymentRepository;
+import ee.grouply.backend.repo.PaymentRow;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes the full ledger of an event (expenses, their shares, then payments) straight from
+ * forward-only database cursors to the response. Nothing is collected in memory: each row
+ * is written as it is read, the output is flushed every {@link #FLUSH_EVERY} rows and the
+ * persistence context is cleared at the same points, so heap use does not grow with the
+ * size of the event.
+ */
+@Service
+public class LedgerExportService {
+    public enum Format { CSV, NDJSON }
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final EventRepository eventRepository;
+    private final ExpenseShareRepository shareRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public LedgerExportService(EventRepository eventRepository,
+                               ExpenseShareRepository shareRepository,
+                               PaymentRepository paymentRepository,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.shareRepository = shareRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // called before the response is committed, so a missing event is still an error status
+    public void checkEvent(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new NotFoundException("Event with id " + eventId + " not found");
+        }
+    }
+
+    public void write(Long eventId, Format format, OutputStream out) throws IOException {
+        var writer = format == Format.NDJSON ? new NdjsonWriter(objectMapper, out) : new CsvWriter(out);
+        // the header goes out before the query runs
+        writer.flush();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try {
+                    long rows = 0;
+                    Long expenseId = null;
+                    try (var shares = shareRepository.streamLedgerRows(eventId)) {
+                        for (var it = shares.iterator(); it.hasNext(); ) {
+                            var row = it.next();
+                            // rows are ordered by expense, so a new id starts the next expense
+                            if (!Objects.equals(row.getExpenseId(), expenseId)) {
+                                expenseId = row.getExpenseId();
+                                writer.expense(row);
+                            }
+                            writer.share(row);
+                            if (++rows % FLUSH_EVERY == 0) checkpoint(writer);
+                        }
+                    }
+                    try (var payments = paymentRepository.streamRows(eventId)) {
+                        for (var it = payments.iterator(); it.hasNext(); ) {
+                            writer.payment(it.next());
+                            if (++rows % FLUSH_EVERY == 0) checkpoint(writer);
+                        }
+                    }
+                    writer.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            // usually the client went away; the cursor is closed and the transaction rolled back
+            throw ex.getCause();
+        }
+    }
+
+    private void checkpoint(LedgerWriter writer) throws IOException {
+        writer.flush();
+        entityManager.clear();
+    }
+
+    private interface LedgerWriter {
+        void expense(LedgerShareRow row) throws IOException;
+
+        void share(LedgerShareRow row) throws IOException;
+
+        void payment(PaymentRow row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * One line per record with the columns
+     * record,id,expense_id,created_at,user_id,to_user_id,amount,split_mode,settled,description.
+     * Expenses carry the payer in user_id, shares the participant, payments the sender.
+     */
+    private static final class CsvWriter implements LedgerWriter {
+        private final Writer out;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.out.write("record,id,expense_id,created_at,user_id,to_user_id,amount,split_mode,settled,description\n");
+        }
+
+        public void expense(LedgerShareRow r) throws IOException {
+            line("expense", r.getExpenseId(), null, r.getCreatedAt(), r.getPayerId(), null, r.getAmount(),
+                    r.getSplitMode(), null, r.getDescription());
+        }
+
+        public void share(LedgerShareRow r) throws IOException {
+            line("share", r.getShareId(), r.getExpenseId(), null, r.getUserId(), null, r.getShareAmount(),
+                    null, null, null);
+        }
+
+        public void payment(PaymentRow r) throws IOException {
+            line("payment", r.getId(), null, r.getCreatedAt(), r.getFromUserId(), r.getToUserId(), r.getAmount(),
+                    null, r.getSettled(), null);
+        }
+
+        private void line(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                var v = values[i];
+                if (v == null) continue;
+                if (v instanceof BigDecimal d) {
+                    out.write(d.toPlainString());
+                } else if (v instanceof String s && i == values.length - 1) {
+                    // free text is the only column that can hold separators or quotes
+                    out.write('"');
+                    out.write(s.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(v.toString());
+                }
+            }
+            out.write('\n');
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    // one JSON object per line, with a "record" field of expense, share or payment
+    private static final class NdjsonWriter implements LedgerWriter {
+        private final JsonGenerator json;
+
+        NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(out);
+            // lines are ended explicitly; no separator between root values
+            this.json.setRootValueSeparator(null);
+        }
+
+        public void expense(LedgerShareRow r) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("record", "expense");
+            json.writeNumberField("id", r.getExpenseId());
+            json.writeStringField("createdAt", Objects.toString(r.getCreatedAt(), null));
+            json.writeNumberField("payerId", r.getPayerId());
+            json.writeNumberField("amount", r.getAmount());
+            json.writeStringField("splitMode", Objects.toString(r.getSplitMode(), null));
+            json.writeStringField("description", r.getDescription());
+            end();
+        }
+
+        public void share(LedgerShareRow r) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("record", "share");
+            json.writeNumberField("id", r.getShareId());
+            json.writeNumberField("expenseId", r.getExpenseId());
+            json.writeNumberField("userId", r.getUserId());
+            json.writeNumberField("amount", r.getShareAmount());
+            end();
+        }
+
+        public void payment(PaymentRow r) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("record", "payment");
+            json.writeNumberField("id", r.getId());
+            json.writeStringField("createdAt", Objects.toString(r.getCreatedAt(), null));
+            json.writeNumberField("fromUserId", r.getFromUserId());
+            json.writeNumberField("toUserId", r.getToUserId());
+            json.writeNumberField("amount", r.getAmount());
+            json.writeBooleanField("settled", r.getSettled());
+            end();
+        }
+
+        private void end() throws IOException {
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.Payment;
+import ee.grouply.backend.dto.PaymentCreateDTO;
+import ee.grouply.backend.repo.PaymentRepository;
+import ee.grouply.backend.repo.UserRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.RoundingMode;
+import java.util.List;
+
+@Service
+public class PaymentService {
+    private final PaymentRepository paymentRepository;
+    private final UserRepository userRepository;
+    private final BalanceLedgerService ledger;
+    private final UserLookup userLookup;
+
+    public PaymentService(PaymentRepository paymentRepository,
+                          UserRepository userRepository,
+                          BalanceLedgerService ledger,
+                          UserLookup userLookup) {
+        this.paymentRepository = paymentRepository;
+        this.userRepository = userRepository;
+        this.ledger = ledger;
+        this.userLookup = userLookup;
+    }
+
+    @Transactional
+    public Payment createPayment(PaymentCreateDTO dto) {
+        var known = userLookup.namesById(List.of(dto.fromUserId, dto.toUserId));
+        if (!known.containsKey(dto.fromUserId)) throw new IllegalArgumentException("from user not found");
+        if (!known.containsKey(dto.toUserId)) throw new IllegalArgumentException("to user not found");
+        var from = userRepository.getReferenceById(dto.fromUserId);
+        var to = userRepository.getReferenceById(dto.toUserId);
+        Payment p = new Payment();
+        p.setEventId(dto.eventId);
+        p.setFromUser(from);
+        p.setToUser(to);
+        p.setAmount(dto.amount.setScale(2, RoundingMode.HALF_UP));
+        p.setSettled(true);
+        var saved = paymentRepository.save(p);
+        ledger.applyPayment(saved);
+        return saved;
+    }
+}
@@ -0,0 +1,207 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.service.settlement.SettlementMode;
+import ee.grouply.backend.service.stream.BalancesChanged;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settlement suggestions computed in the background and cached per event. A committed
+ * ledger write marks the event's plans stale and schedules one recompute after the
+ * debounce window; writes that land before it runs are folded into it, so a burst of N
+ * writes costs one computation instead of N.
+ *
+ * <p>Every plan carries the ledger version it was computed at. Readers get the last plan
+ * straight away, stale or not, or can wait up to a limit for one that is current. Only
+ * events that were asked for are cached, and at most max-events of them (least recently
+ * read go first). The version is checked against the database on each read, so writes
+ * made by another instance are noticed too.
+ */
+@Service
+public class SettlementCache {
+    public record Result(SettlementService.Plan plan, long version, boolean stale) {}
+
+    private record Computed(SettlementService.Plan plan, long version) {}
+
+    private static final class Entry {
+        final Long eventId;
+        final Map<SettlementMode, Computed> plans = new EnumMap<>(SettlementMode.class);
+        // highest ledger version seen for the event
+        long known;
+        boolean scheduled;
+        // completed by the next recompute; replaced when that recompute starts
+        CompletableFuture<Void> next = new CompletableFuture<>();
+
+        Entry(Long eventId) {
+            this.eventId = eventId;
+        }
+
+        boolean stale() {
+            for (var c : plans.values()) {
+                if (c.version < known) return true;
+            }
+            return false;
+        }
+    }
+
+    private final SettlementService settlements;
+    private final BalanceLedgerService ledger;
+    private final long debounceMillis;
+    private final Map<Long, Entry> entries;
+    private final ScheduledThreadPoolExecutor workers;
+    private final AtomicLong computations = new AtomicLong();
+
+    public SettlementCache(SettlementService settlements,
+                           BalanceLedgerService ledger,
+                           @Value("${grouply.settlement.cache.debounce:250ms}") Duration debounce,
+                           @Value("${grouply.settlement.cache.max-events:1000}") int maxEvents,
+                           @Value("${grouply.settlement.cache.workers:1}") int workers) {
+        this.settlements = settlements;
+        this.ledger = ledger;
+        this.debounceMillis = debounce.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEvents;
+            }
+        };
+        var threads = new AtomicInteger();
+        this.workers = new ScheduledThreadPoolExecutor(workers, r -> {
+            var t = new Thread(r, "settlement-cache-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * The cached plan of the event, or a freshly computed one the first time a mode is asked
+     * for. If the cached plan is older than the ledger and wait is positive, waits that long
+     * at most for the recompute; otherwise the older plan is returned marked stale.
+     */
+    public Result get(Long eventId, SettlementMode mode, Duration wait) {
+        Long current = ledger.version(eventId);
+        if (current == null) {
+            // no such event; nothing to cache
+            return new Result(settlements.suggestSettlements(eventId, mode), 0, false);
+        }
+
+        var entry = entryFor(eventId);
+        Computed cached;
+        synchronized (entry) {
+            entry.known = Math.max(entry.known, current);
+            cached = entry.plans.get(mode);
+            if (cached != null && cached.version >= current) return new Result(cached.plan, cached.version, false);
+            if (cached != null) schedule(entry);
+        }
+
+        if (cached == null) {
+            // first request for this mode: there is nothing to serve, so compute it here
+            var computed = new Computed(settlements.suggestSettlements(eventId, mode), current);
+            computations.incrementAndGet();
+            synchronized (entry) {
+                store(entry, mode, computed);
+            }
+            return new Result(computed.plan, computed.version, false);
+        }
+
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (cached.version < current) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) break;
+            CompletableFuture<Void> next;
+            synchronized (entry) {
+                next = entry.next;
+            }
+            try {
+                next.get(left, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException ex) {
+                break;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            synchronized (entry) {
+                cached = entry.plans.get(mode);
+            }
+        }
+        return new Result(cached.plan, cached.version, cached.version < current);
+    }
+
+    // committed writes only; events nobody asked for are not tracked
+    @TransactionalEventListener
+    public void on(BalancesChanged change) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(change.eventId());
+        }
+        if (entry == null) return;
+        synchronized (entry) {
+            entry.known = Math.max(entry.known, change.version());
+            if (entry.stale()) schedule(entry);
+        }
+    }
+
+    public long computations() {
+        return computations.get();
+    }
+
+    private Entry entryFor(Long eventId) {
+        synchronized (entries) {
+            return entries.computeIfAbsent(eventId, Entry::new);
+        }
+    }
+
+    // caller holds the entry lock; a recompute already pending absorbs this request
+    private void schedule(Entry entry) {
+        if (entry.scheduled) return;
+        entry.scheduled = true;
+        workers.schedule(() -> recompute(entry), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void recompute(Entry entry) {
+        Set<SettlementMode> modes;
+        CompletableFuture<Void> done;
+        synchronized (entry) {
+            // writes from here on schedule the next round
+            entry.scheduled = false;
+            modes = EnumSet.copyOf(entry.plans.keySet());
+            done = entry.next;
+            entry.next = new CompletableFuture<>();
+        }
+        try {
+            // read before the balances, so a write in between leaves the plan looking older, never newer
+            Long version = ledger.version(entry.eventId);
+            if (version == null) return;
+            for (var mode : modes) {
+                var computed = new Computed(settlements.suggestSettlements(entry.eventId, mode), version);
+                computations.incrementAndGet();
+                synchronized (entry) {
+                    store(entry, mode, computed);
+                }
+            }
+        } catch (RuntimeException ex) {
+            // the old plans stay; the next write or stale read schedules another attempt
+        } finally {
+            done.complete(null);
+        }
+    }
+
+    private static void store(Entry entry, SettlementMode mode, Computed computed) {
+        var old = entry.plans.get(mode);
+        if (old == null || old.version <= computed.version) entry.plans.put(mode, computed);
+    }
+}
@@ -1,21 +1,33 @@
 package ee.grouply.backend.service;
 
 import ee.grouply.backend.dto.BalanceDTO;
-import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.settlement.SettlementKernel;
+import ee.grouply.backend.service.settlement.SettlementMode;
+import ee.grouply.backend.service.settlement.ZeroSumPartitionSolver;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.util.*;
 
 @Service
 public class SettlementService {
     private final ExpenseService expenseService;
-    private final UserRepository userRepository;
+    private final UserLookup userLookup;
+    private final Duration timeBudget;
+    private final HotPathMetrics metrics;
 
-    public SettlementService(ExpenseService expenseService, UserRepository userRepository) {
+    public SettlementService(ExpenseService expenseService, UserLookup userLookup,
+                             @Value("${grouply.settlement.time-budget:50ms}") Duration timeBudget,
+                             HotPathMetrics metrics) {
         this.expenseService = expenseService;
-        this.userRepository = userRepository;
+        this.userLookup = userLookup;
+        this.timeBudget = timeBudget;
+        this.metrics = metrics;
     }
 
     public static class Transfer {
@@ -25,67 +37,96 @@ public class SettlementService {
         public Transfer(Long f, Long t, BigDecimal a) { fromUserId = f; toUserId = t; amount = a; }
     }
 
+    @Transactional(readOnly = true)
     public List<BalanceDTO> balancesForEvent(Long eventId) {
         var map = expenseService.computeBalancesForEvent(eventId);
+        return balancesOf(map, userLookup.namesById(map.keySet()));
+    }
+
+    // balance rows of an already computed balance map; users missing from names show as Unknown
+    public List<BalanceDTO> balancesOf(Map<Long, BigDecimal> map, Map<Long, String> names) {
         List<BalanceDTO> out = new ArrayList<>();
         for (var entry : map.entrySet()) {
-            var u = userRepository.findById(entry.getKey()).orElse(null);
             var dto = new BalanceDTO();
             dto.userId = entry.getKey();
-            dto.name = (u == null ? "Unknown" : u.getName());
+            dto.name = names.getOrDefault(entry.getKey(), "Unknown");
             dto.balance = entry.getValue();
             out.add(dto);
         }
         return out;
     }
 
+    public static class Plan {
+        public List<Transfer> transfers;
+        // which algorithm produced the transfers: GREEDY, OPTIMAL or GREEDY_FALLBACK
+        public String algorithm;
+        // how many fewer transfers than the greedy answer
+        public int transfersSaved;
+    }
+
     /**
-     * Greedy minimal-transfer settlement:
-     * - build lists of creditors (positive) and debtors (negative)
+     * Greedy settlement:
+     * - build lists of creditors (negative balance) and debtors (positive balance)
      * - repeatedly match largest creditor with largest debtor
+     * Balances are converted to cents once and settled by {@link SettlementKernel}.
      */
     public List<Transfer> suggestSettlements(Long eventId) {
-    var map = expenseService.computeBalancesForEvent(eventId);
-    // filter near-zero balances
-    map.entrySet().removeIf(e -> e.getValue().abs().compareTo(BigDecimal.valueOf(0.01)) < 0);
+        return suggestSettlements(eventId, SettlementMode.GREEDY).transfers;
+    }
 
-    // Changed comparison logic: negative balance means they are owed money (creditor)
-    PriorityQueue<Map.Entry<Long, BigDecimal>> creditors = new PriorityQueue<>(
-            Comparator.comparing((Map.Entry<Long, BigDecimal> e) -> e.getValue())  // Removed .reversed()
-    );
-    PriorityQueue<Map.Entry<Long, BigDecimal>> debtors = new PriorityQueue<>(
-            Comparator.comparing((Map.Entry<Long, BigDecimal> e) -> e.getValue()).reversed()  // Added .reversed()
-    );
+    // timed by requested mode and by the algorithm that answered (a fallback means the budget ran out).
+    // Not read-only on purpose: SettlementCache labels the plan with a ledger version it reads
+    // from the primary, so the balances have to come from there too.
+    public Plan suggestSettlements(Long eventId, SettlementMode mode) {
+        return suggestSettlements(expenseService.computeBalancesForEvent(eventId), mode);
+    }
 
-    // Changed condition: negative balance means they are owed money
-    for (var e : map.entrySet()) {
-        if (e.getValue().compareTo(BigDecimal.ZERO) < 0) creditors.add(e);  // Changed > to <
-        else if (e.getValue().compareTo(BigDecimal.ZERO) > 0) debtors.add(e);  // Changed < to >
+    // plan for an already computed balance map (userId -> balance)
+    public Plan suggestSettlements(Map<Long, BigDecimal> balances, SettlementMode mode) {
+        var sample = metrics.start();
+        var plan = plan(balances, mode);
+        metrics.stop(sample, "grouply.settlement.suggest", Tags.of(
+                "mode", mode.name(),
+                "algorithm", plan.algorithm,
+                "participants", HotPathMetrics.countBucket(balances.size())));
+        return plan;
     }
 
-    List<Transfer> out = new ArrayList<>();
-    while (!creditors.isEmpty() && !debtors.isEmpty()) {
-        var c = creditors.poll();
-        var d = debtors.poll();
-        BigDecimal credit = c.getValue().abs();  // Added .abs()
-        BigDecimal debt = d.getValue();
-        BigDecimal transfer = credit.min(debt).setScale(2, RoundingMode.HALF_UP);
-        
-        // Now debtor (positive balance) pays creditor (negative balance)
-        out.add(new Transfer(d.getKey(), c.getKey(), transfer));
-        
-        BigDecimal newCredit = credit.subtract(transfer);
-        BigDecimal newDebt = debt.subtract(transfer);
-        
-        if (newCredit.compareTo(BigDecimal.valueOf(0.01)) >= 0) {
-            c.setValue(newCredit.negate());  // Added .negate()
-            creditors.add(c);
+    private Plan plan(Map<Long, BigDecimal> map, SettlementMode mode) {
+        int n = map.size();
+        long[] userIds = new long[n];
+        long[] cents = new long[n];
+        int i = 0;
+        for (var e : map.entrySet()) {
+            userIds[i] = e.getKey();
+            cents[i] = e.getValue().setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+            i++;
         }
-        if (newDebt.compareTo(BigDecimal.valueOf(0.01)) >= 0) {
-            d.setValue(newDebt);
-            debtors.add(d);
+
+        var greedy = SettlementKernel.greedy(userIds, cents);
+        var plan = new Plan();
+        plan.algorithm = "GREEDY";
+        plan.transfers = toTransfers(greedy);
+        if (mode != SettlementMode.OPTIMAL) return plan;
+
+        // greedy is already n - 1 transfers at worst; only the zero-sum split can beat it
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        var optimal = ZeroSumPartitionSolver.solve(userIds, cents, deadline);
+        if (optimal == null) {
+            plan.algorithm = "GREEDY_FALLBACK";
+        } else if (optimal.count <= greedy.count) {
+            plan.algorithm = "OPTIMAL";
+            plan.transfersSaved = greedy.count - optimal.count;
+            plan.transfers = toTransfers(optimal);
+        }
+        return plan;
+    }
+
+    private static List<Transfer> toTransfers(SettlementKernel.Transfers t) {
+        List<Transfer> out = new ArrayList<>(t.count);
+        for (int k = 0; k < t.count; k++) {
+            out.add(new Transfer(t.fromUserIds[k], t.toUserIds[k], BigDecimal.valueOf(t.cents[k], 2)));
         }
+        return out;
     }
-    return out;
 }
-}
\ No newline at end of file
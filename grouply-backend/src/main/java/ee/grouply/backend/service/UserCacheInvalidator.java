@@ -0,0 +1,38 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA entity listener on User; Hibernate obtains it from the Spring context
+@Component
+public class UserCacheInvalidator {
+    private final ObjectProvider<UserLookup> userLookup;
+
+    public UserCacheInvalidator(ObjectProvider<UserLookup> userLookup) {
+        this.userLookup = userLookup;
+    }
+
+    // these fire at flush; evicting then would let a concurrent reader cache the
+    // still-committed old row again, so the eviction waits for the commit
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        var id = user.getId();
+        if (id == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userLookup.getObject().evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userLookup.getObject().evict(id);
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.dto.CacheStatsDTO;
+import ee.grouply.backend.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves user ids to names through a bounded LRU cache. Misses of a batch are
+ * loaded with a single findAllById. Entries are evicted by {@link UserCacheInvalidator}
+ * once a transaction that changed the User row commits, and expire after a TTL so a
+ * name loaded by a reader racing that commit cannot stay stale for long.
+ */
+@Component
+public class UserLookup {
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    // id -> name and the System.nanoTime() it was loaded at, least recently used dropped first
+    private final Map<Long, Entry> names;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserLookup(UserRepository userRepository,
+                      @Value("${grouply.user-cache.max-size:10000}") int maxSize,
+                      @Value("${grouply.user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.names = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > UserLookup.this.maxSize;
+            }
+        };
+    }
+
+    /** Names of the given users; ids that do not exist are absent from the result. */
+    public Map<Long, String> namesById(Collection<Long> ids) {
+        Map<Long, String> out = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (names) {
+            for (var id : ids) {
+                if (id == null || out.containsKey(id)) continue;
+                var entry = names.get(id);
+                if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                    out.put(id, entry.name());
+                } else {
+                    if (entry != null) names.remove(id);
+                    missing.add(id);
+                }
+            }
+        }
+        hits.addAndGet(out.size());
+        if (missing.isEmpty()) return out;
+
+        misses.addAndGet(missing.size());
+        var loaded = userRepository.findAllById(missing);
+        synchronized (names) {
+            for (var u : loaded) {
+                // a null name would read as a miss forever, so cache it as empty
+                var name = u.getName() == null ? "" : u.getName();
+                // stamped with the time before the read, so the TTL bounds the age of the data
+                names.put(u.getId(), new Entry(name, now));
+                out.put(u.getId(), name);
+            }
+        }
+        return out;
+    }
+
+    public void evict(Long id) {
+        synchronized (names) {
+            names.remove(id);
+        }
+    }
+
+    private record Entry(String name, long loadedAt) {}
+
+    public long hits() { return hits.get(); }
+    public long misses() { return misses.get(); }
+
+    public CacheStatsDTO stats() {
+        var s = new CacheStatsDTO();
+        s.hits = hits.get();
+        s.misses = misses.get();
+        synchronized (names) {
+            s.size = names.size();
+        }
+        s.maxSize = maxSize;
+        return s;
+    }
+}
@@ -0,0 +1,4 @@
+package ee.grouply.backend.service.search;
+
+// an event was deleted; dropped from the index once the deleting transaction commits
+public record EventDeleted(Long eventId) {}
@@ -0,0 +1,6 @@
+package ee.grouply.backend.service.search;
+
+import ee.grouply.backend.domain.Event;
+
+// an event was created or updated; indexed once the writing transaction commits
+public record EventSaved(Event event) {}
@@ -0,0 +1,219 @@
+package ee.grouply.backend.service.search;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.repo.EventRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over event title, description and location. Every query term
+ * matches as a prefix, so "kon" finds "Kontsert"; all terms of a query must match.
+ * EventService's committed adds, updates and deletes keep it current; a periodic rebuild
+ * from the table picks up anything written around it (other instances, direct SQL).
+ */
+@Component
+public class EventSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Doc> BY_DATE =
+            Comparator.comparing(Doc::dateTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Doc::id);
+
+    private record Doc(Long id, Set<String> terms, LocalDateTime dateTime, String location) {}
+
+    private static final class State {
+        // term -> ids of the events containing it; sorted, so a prefix is a contiguous range
+        final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+        final Map<Long, Doc> docs = new HashMap<>();
+
+        void put(Doc doc) {
+            remove(doc.id());
+            docs.put(doc.id(), doc);
+            for (var term : doc.terms()) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(doc.id());
+            }
+        }
+
+        void remove(Long id) {
+            var old = docs.remove(id);
+            if (old == null) return;
+            for (var term : old.terms()) {
+                var ids = postings.get(term);
+                ids.remove(id);
+                if (ids.isEmpty()) postings.remove(term);
+            }
+        }
+
+        Set<Long> withPrefix(String prefix) {
+            Set<Long> out = new HashSet<>();
+            for (var e : postings.tailMap(prefix, true).entrySet()) {
+                if (!e.getKey().startsWith(prefix)) break;
+                out.addAll(e.getValue());
+            }
+            return out;
+        }
+    }
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate tx;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private State state = new State();
+    // changes made while a rebuild reads the table, replayed onto its result; null otherwise
+    private List<Consumer<State>> pending;
+    private volatile boolean built;
+
+    public EventSearchIndex(EventRepository eventRepository, PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        // not read-only, so the rebuild reads the primary rather than a lagging replica; a new
+        // transaction, since the first rebuild can run inside the read-only one of a search
+        this.tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener
+    public void on(EventSaved change) {
+        put(change.event());
+    }
+
+    @TransactionalEventListener
+    public void on(EventDeleted change) {
+        remove(change.eventId());
+    }
+
+    /** Lower-case, accent-free words of the text, in order. */
+    public static List<String> terms(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        var folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> out = new ArrayList<>();
+        for (var word : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) out.add(word);
+        }
+        return out;
+    }
+
+    /** Indexes a saved event, replacing what was indexed for it before. */
+    public void put(Event event) {
+        var doc = docOf(event.getId(), event.getTitle(), event.getDescription(), event.getLocation(), event.getDateTime());
+        apply(s -> s.put(doc));
+    }
+
+    public void remove(Long eventId) {
+        apply(s -> s.remove(eventId));
+    }
+
+    /**
+     * Ids of the events matching every term of the query (as a prefix) and the filters,
+     * by date with undated events last. from is inclusive, to exclusive; location is a
+     * case-insensitive substring. Null filters do not filter.
+     */
+    public List<Long> search(String query, LocalDateTime from, LocalDateTime to, String location) {
+        if (!built) rebuildOnce();
+        var queryTerms = new LinkedHashSet<>(terms(query));
+        var needle = location == null ? null : location.toLowerCase(Locale.ROOT);
+        List<Doc> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = null;
+            for (var term : queryTerms) {
+                var matching = state.withPrefix(term);
+                if (ids == null) ids = matching;
+                else ids.retainAll(matching);
+                if (ids.isEmpty()) return List.of();
+            }
+            if (ids == null) return List.of();
+            for (var id : ids) {
+                var doc = state.docs.get(id);
+                if (from != null && (doc.dateTime() == null || doc.dateTime().isBefore(from))) continue;
+                if (to != null && (doc.dateTime() == null || !doc.dateTime().isBefore(to))) continue;
+                if (needle != null && (doc.location() == null || !doc.location().contains(needle))) continue;
+                hits.add(doc);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(BY_DATE);
+        return hits.stream().map(Doc::id).toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Replaces the index with one read from the event table. */
+    @Scheduled(initialDelayString = "0", fixedDelayString = "${grouply.search.rebuild-interval:1h}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            var fresh = new State();
+            try {
+                tx.executeWithoutResult(status -> {
+                    try (var rows = eventRepository.streamTextRows()) {
+                        rows.forEach(r -> fresh.put(docOf(r.getId(), r.getTitle(), r.getDescription(),
+                                r.getLocation(), r.getDateTime())));
+                    }
+                });
+                lock.writeLock().lock();
+                try {
+                    pending.forEach(change -> change.accept(fresh));
+                    state = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                built = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    // a search that comes in before the first scheduled build waits for it
+    private void rebuildOnce() {
+        synchronized (rebuildLock) {
+            if (!built) rebuild();
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (pending != null) pending.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Doc docOf(Long id, String title, String description, String location, LocalDateTime dateTime) {
+        Set<String> terms = new HashSet<>(terms(title));
+        terms.addAll(terms(description));
+        terms.addAll(terms(location));
+        return new Doc(id, terms, dateTime, location == null ? null : location.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,113 @@
+package ee.grouply.backend.service.settlement;
+
+/**
+ * Greedy settlement over primitive arrays: repeatedly match the largest creditor with
+ * the largest debtor. Balances are in cents, positive = owes, negative = is owed.
+ * <p>
+ * Both heaps hold indices into the balance array and use the same sift-up/sift-down
+ * steps as {@link java.util.PriorityQueue}, so for the same input order the transfers
+ * (including how ties are broken) match the previous PriorityQueue implementation.
+ */
+public final class SettlementKernel {
+    private SettlementKernel() {}
+
+    /** Transfers as parallel arrays; only the first {@code count} entries are used. */
+    public static final class Transfers {
+        public final long[] fromUserIds;
+        public final long[] toUserIds;
+        public final long[] cents;
+        public int count;
+
+        Transfers(int capacity) {
+            fromUserIds = new long[capacity];
+            toUserIds = new long[capacity];
+            cents = new long[capacity];
+        }
+
+        void add(long from, long to, long amount) {
+            fromUserIds[count] = from;
+            toUserIds[count] = to;
+            cents[count] = amount;
+            count++;
+        }
+    }
+
+    public static Transfers greedy(long[] userIds, long[] balances) {
+        int n = userIds.length;
+        if (balances.length != n) throw new IllegalArgumentException("userIds and balances differ in length");
+
+        // keys are what each heap orders by, smallest first
+        long[] key = new long[n];
+        int[] creditors = new int[n];
+        int[] debtors = new int[n];
+        int creditorCount = 0, debtorCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (balances[i] < 0) {
+                key[i] = balances[i];
+                creditorCount = offer(creditors, creditorCount, i, key);
+            } else if (balances[i] > 0) {
+                key[i] = -balances[i];
+                debtorCount = offer(debtors, debtorCount, i, key);
+            }
+        }
+
+        // every transfer clears at least one side, so nonzero - 1 transfers is enough
+        var out = new Transfers(Math.max(creditorCount + debtorCount - 1, 0));
+        while (creditorCount > 0 && debtorCount > 0) {
+            int c = creditors[0];
+            creditorCount = poll(creditors, creditorCount, key);
+            int d = debtors[0];
+            debtorCount = poll(debtors, debtorCount, key);
+
+            long credit = -key[c];
+            long debt = -key[d];
+            long transfer = Math.min(credit, debt);
+            out.add(userIds[d], userIds[c], transfer);
+
+            if (credit - transfer > 0) {
+                key[c] = -(credit - transfer);
+                creditorCount = offer(creditors, creditorCount, c, key);
+            }
+            if (debt - transfer > 0) {
+                key[d] = -(debt - transfer);
+                debtorCount = offer(debtors, debtorCount, d, key);
+            }
+        }
+        return out;
+    }
+
+    // PriorityQueue.offer / siftUp
+    private static int offer(int[] heap, int size, int idx, long[] key) {
+        int k = size;
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            int p = heap[parent];
+            if (key[idx] >= key[p]) break;
+            heap[k] = p;
+            k = parent;
+        }
+        heap[k] = idx;
+        return size + 1;
+    }
+
+    // PriorityQueue.poll / siftDown; the caller has already read heap[0]
+    private static int poll(int[] heap, int size, long[] key) {
+        int n = size - 1;
+        int x = heap[n];
+        if (n > 0) {
+            int k = 0;
+            int half = n >>> 1;
+            while (k < half) {
+                int child = (k << 1) + 1;
+                int c = heap[child];
+                int right = child + 1;
+                if (right < n && key[c] > key[heap[right]]) c = heap[child = right];
+                if (key[x] <= key[c]) break;
+                heap[k] = c;
+                k = child;
+            }
+            heap[k] = x;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,19 @@
+package ee.grouply.backend.service.settlement;
+
+import java.util.Locale;
+
+public enum SettlementMode {
+    // largest creditor / largest debtor matching
+    GREEDY,
+    // fewest transfers via zero-sum subgroups, greedy fallback when over the time budget
+    OPTIMAL;
+
+    // the ?mode= request parameter, case-insensitive
+    public static SettlementMode parse(String mode) {
+        try {
+            return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown settlement mode: " + mode);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ee.grouply.backend.service.settlement;
+
+import java.util.HashMap;
+import java.util.ArrayDeque;
+
+/**
+ * Minimal-transfer settlement. A group of k people whose balances sum to zero can always
+ * be settled with k - 1 transfers, so the fewest transfers overall come from splitting
+ * everyone into as many disjoint zero-sum groups as possible and settling each group on
+ * its own. Exact opposite pairs are split off first; the rest is partitioned with a
+ * bitmask DP over subsets, which is only attempted for small remainders.
+ */
+public final class ZeroSumPartitionSolver {
+    /** Largest remainder (after pairing) the subset DP is attempted for: 2^20 states. */
+    public static final int MAX_EXACT_SIZE = 20;
+
+    private ZeroSumPartitionSolver() {}
+
+    /**
+     * Returns the transfers, or null when the remainder is too large for the DP or the
+     * deadline (a {@link System#nanoTime()} value) passes first.
+     */
+    public static SettlementKernel.Transfers solve(long[] userIds, long[] balances, long deadlineNanos) {
+        int n = userIds.length;
+        int[] order = new int[n];
+        int[] groupEnds = new int[n];
+        int placed = 0, groups = 0;
+
+        // 1. exact opposite pairs are always a group of their own in some optimal partition
+        var open = new HashMap<Long, ArrayDeque<Integer>>();
+        boolean[] paired = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (balances[i] == 0) continue;
+            var match = open.get(-balances[i]);
+            if (match != null && !match.isEmpty()) {
+                int j = match.poll();
+                paired[i] = paired[j] = true;
+                order[placed++] = j;
+                order[placed++] = i;
+                groupEnds[groups++] = placed;
+            } else {
+                open.computeIfAbsent(balances[i], k -> new ArrayDeque<>()).add(i);
+            }
+        }
+
+        int r = 0;
+        int[] rest = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (balances[i] != 0 && !paired[i]) rest[r++] = i;
+        }
+        if (r > MAX_EXACT_SIZE) return null;
+
+        // 2. dp[mask] = most zero-sum groups the people in mask can be split into
+        if (r > 0) {
+            int full = (1 << r) - 1;
+            long[] sum = new long[full + 1];
+            byte[] dp = new byte[full + 1];
+            for (int mask = 1; mask <= full; mask++) {
+                if ((mask & 1023) == 0 && System.nanoTime() - deadlineNanos > 0) return null;
+                int low = Integer.numberOfTrailingZeros(mask);
+                sum[mask] = sum[mask & (mask - 1)] + balances[rest[low]];
+                int best = 0;
+                for (int m = mask; m != 0; m &= m - 1) {
+                    int prev = dp[mask ^ Integer.lowestOneBit(m)];
+                    if (prev > best) best = prev;
+                }
+                dp[mask] = (byte) (best + (sum[mask] == 0 ? 1 : 0));
+            }
+
+            // walk back from the full set; every zero-sum mask on the path closes a group
+            int mask = full;
+            while (mask != 0) {
+                int gain = sum[mask] == 0 ? 1 : 0;
+                for (int m = mask; m != 0; m &= m - 1) {
+                    int bit = Integer.lowestOneBit(m);
+                    if (dp[mask ^ bit] + gain == dp[mask]) {
+                        order[placed++] = rest[Integer.numberOfTrailingZeros(bit)];
+                        mask ^= bit;
+                        break;
+                    }
+                }
+                if (sum[mask] == 0) groupEnds[groups++] = placed;
+            }
+        }
+
+        // 3. settle every group on its own
+        var out = new SettlementKernel.Transfers(Math.max(placed - groups, 0));
+        int start = 0;
+        for (int g = 0; g < groups; g++) {
+            int size = groupEnds[g] - start;
+            long[] ids = new long[size];
+            long[] cents = new long[size];
+            for (int k = 0; k < size; k++) {
+                ids[k] = userIds[order[start + k]];
+                cents[k] = balances[order[start + k]];
+            }
+            var t = SettlementKernel.greedy(ids, cents);
+            for (int k = 0; k < t.count; k++) {
+                out.add(t.fromUserIds[k], t.toUserIds[k], t.cents[k]);
+            }
+            start = groupEnds[g];
+        }
+        return out;
+    }
+}
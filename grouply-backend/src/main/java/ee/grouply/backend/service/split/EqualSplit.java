@@ -0,0 +1,21 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.util.List;
+
+// share values are ignored; the leftover cents go to the first participants
+public class EqualSplit implements SplitStrategy {
+    @Override
+    public long[] split(long totalCents, List<ShareDTO> shares) {
+        int n = shares.size();
+        if (n == 0) throw new IllegalArgumentException("No participants");
+        long base = totalCents / n;
+        long left = totalCents % n;
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = base + (i < left ? 1 : 0);
+        }
+        return out;
+    }
+}
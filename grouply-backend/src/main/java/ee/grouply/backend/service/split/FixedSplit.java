@@ -0,0 +1,26 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// share value is the exact amount owed; the amounts must add up to the expense total
+public class FixedSplit implements SplitStrategy {
+    @Override
+    public long[] split(long totalCents, List<ShareDTO> shares) {
+        long[] out = new long[shares.size()];
+        long sum = 0;
+        for (int i = 0; i < out.length; i++) {
+            var v = shares.get(i).value;
+            if (v == null) throw new IllegalArgumentException("Missing amount for share");
+            if (v < 0 || !Double.isFinite(v)) throw new IllegalArgumentException("Invalid share amount");
+            var cents = BigDecimal.valueOf(v).movePointRight(2);
+            if (cents.stripTrailingZeros().scale() > 0) throw new IllegalArgumentException("Share amounts must be whole cents");
+            out[i] = cents.longValueExact();
+            sum = Math.addExact(sum, out[i]);
+        }
+        if (sum != totalCents) throw new IllegalArgumentException("Share amounts must add up to the expense amount");
+        return out;
+    }
+}
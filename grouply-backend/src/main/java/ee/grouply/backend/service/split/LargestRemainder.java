@@ -0,0 +1,86 @@
+package ee.grouply.backend.service.split;
+
+import java.math.BigInteger;
+
+/**
+ * Largest-remainder (Hamilton) apportionment of an amount in minor units.
+ * Every share ends up within one unit of its exact fair value and the shares
+ * always add up to the total. Ties are broken in input order.
+ */
+public final class LargestRemainder {
+    private LargestRemainder() {}
+
+    /**
+     * Splits {@code total} proportionally to the weights. The array holds the weights
+     * on entry and the allocated amounts on return, so the only scratch allocation is
+     * one remainder array.
+     */
+    public static long[] allocateInPlace(long total, long[] weights) {
+        int n = weights.length;
+        if (n == 0) throw new IllegalArgumentException("No participants");
+        if (total < 0) throw new IllegalArgumentException("Amount must not be negative");
+
+        long weightSum = 0;
+        for (long w : weights) {
+            if (w < 0) throw new IllegalArgumentException("Weights must not be negative");
+            weightSum = Math.addExact(weightSum, w);
+        }
+        if (weightSum == 0) throw new IllegalArgumentException("Weights must not all be zero");
+
+        long[] remainders = new long[n];
+        long assigned = 0;
+        for (int i = 0; i < n; i++) {
+            long w = weights[i];
+            long hi = Math.multiplyHigh(total, w);
+            long lo = total * w;
+            if (hi == 0 && lo >= 0) {
+                weights[i] = lo / weightSum;
+                remainders[i] = lo % weightSum;
+            } else {
+                // total * w does not fit in 63 bits; rare enough to take the slow path
+                var qr = BigInteger.valueOf(total).multiply(BigInteger.valueOf(w))
+                        .divideAndRemainder(BigInteger.valueOf(weightSum));
+                weights[i] = qr[0].longValueExact();
+                remainders[i] = qr[1].longValueExact();
+            }
+            assigned += weights[i];
+        }
+
+        // fewer than n units are left over; hand them to the largest remainders
+        long left = total - assigned;
+        if (left == 0) return weights;
+
+        long threshold = kthLargest(remainders, left, weightSum);
+        for (int i = 0; i < n && left > 0; i++) {
+            if (remainders[i] > threshold) {
+                weights[i]++;
+                left--;
+            }
+        }
+        for (int i = 0; i < n && left > 0; i++) {
+            if (remainders[i] == threshold) {
+                weights[i]++;
+                left--;
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Smallest value t such that at most k remainders are strictly greater than t.
+     * Binary search over [0, bound) keeps this allocation-free and O(n log bound).
+     */
+    private static long kthLargest(long[] remainders, long k, long bound) {
+        long lo = 0, hi = bound - 1;
+        while (lo < hi) {
+            long mid = lo + (hi - lo) / 2;
+            long above = 0;
+            for (long r : remainders) {
+                if (r > mid) above++;
+            }
+            if (above <= k) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,24 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.util.List;
+
+// share value is a percentage (0-100, up to four decimals); the values must add up to 100
+public class PercentageSplit implements SplitStrategy {
+    private static final long SCALE = 10_000;
+    private static final long HUNDRED = 100 * SCALE;
+
+    @Override
+    public long[] split(long totalCents, List<ShareDTO> shares) {
+        long[] out = new long[shares.size()];
+        for (int i = 0; i < out.length; i++) {
+            var v = shares.get(i).value;
+            if (v == null) throw new IllegalArgumentException("Missing percentage value for share");
+            if (v < 0 || v > 100) throw new IllegalArgumentException("Invalid percentage value");
+            out[i] = Math.round(v * SCALE);
+        }
+        if (RatioSplit.sum(out) != HUNDRED) throw new IllegalArgumentException("Percentages must add up to 100");
+        return LargestRemainder.allocateInPlace(totalCents, out);
+    }
+}
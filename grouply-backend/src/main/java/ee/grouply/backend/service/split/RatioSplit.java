@@ -0,0 +1,28 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.util.List;
+
+// share value is a relative weight with up to four decimals; missing values weigh zero
+public class RatioSplit implements SplitStrategy {
+    static final long SCALE = 10_000;
+
+    @Override
+    public long[] split(long totalCents, List<ShareDTO> shares) {
+        long[] out = new long[shares.size()];
+        for (int i = 0; i < out.length; i++) {
+            var v = shares.get(i).value;
+            if (v != null && (v < 0 || !Double.isFinite(v))) throw new IllegalArgumentException("Invalid ratio value");
+            out[i] = v == null ? 0 : Math.round(v * SCALE);
+        }
+        if (sum(out) <= 0) throw new IllegalArgumentException("Invalid ratio totals");
+        return LargestRemainder.allocateInPlace(totalCents, out);
+    }
+
+    static long sum(long[] values) {
+        long s = 0;
+        for (long v : values) s = Math.addExact(s, v);
+        return s;
+    }
+}
@@ -0,0 +1,32 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.dto.ShareDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the {@link SplitStrategy} for a {@link SplitMode}. Adding a mode means adding
+ * an enum constant and registering its strategy here.
+ */
+@Component
+public class SplitEngine {
+    private final Map<SplitMode, SplitStrategy> strategies = new EnumMap<>(SplitMode.class);
+
+    public SplitEngine() {
+        strategies.put(SplitMode.EQUAL, new EqualSplit());
+        strategies.put(SplitMode.PERCENTAGE, new PercentageSplit());
+        strategies.put(SplitMode.RATIO, new RatioSplit());
+        strategies.put(SplitMode.UNITS, new UnitsSplit());
+        strategies.put(SplitMode.FIXED, new FixedSplit());
+    }
+
+    public long[] split(SplitMode mode, long totalCents, List<ShareDTO> shares) {
+        var strategy = mode == null ? null : strategies.get(mode);
+        if (strategy == null) throw new IllegalArgumentException("Unsupported split mode");
+        return strategy.split(totalCents, shares);
+    }
+}
@@ -0,0 +1,14 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.util.List;
+
+/**
+ * Splits an expense total, in cents, into one amount per share in the same order
+ * as {@code shares}. Implementations must return amounts that add up exactly to
+ * {@code totalCents}.
+ */
+public interface SplitStrategy {
+    long[] split(long totalCents, List<ShareDTO> shares);
+}
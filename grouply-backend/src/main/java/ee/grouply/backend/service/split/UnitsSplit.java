@@ -0,0 +1,21 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.dto.ShareDTO;
+
+import java.util.List;
+
+// share value is a whole number of units (e.g. nights stayed, portions ordered)
+public class UnitsSplit implements SplitStrategy {
+    @Override
+    public long[] split(long totalCents, List<ShareDTO> shares) {
+        long[] out = new long[shares.size()];
+        for (int i = 0; i < out.length; i++) {
+            var v = shares.get(i).value;
+            if (v == null) throw new IllegalArgumentException("Missing unit count for share");
+            if (v < 0 || v != Math.rint(v) || v > Integer.MAX_VALUE) throw new IllegalArgumentException("Invalid unit count");
+            out[i] = v.longValue();
+        }
+        if (RatioSplit.sum(out) <= 0) throw new IllegalArgumentException("Invalid unit totals");
+        return LargestRemainder.allocateInPlace(totalCents, out);
+    }
+}
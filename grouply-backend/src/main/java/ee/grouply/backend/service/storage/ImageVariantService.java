@@ -0,0 +1,184 @@
+package ee.grouply.backend.service.storage;
+
+import ee.grouply.backend.domain.ImageVariant;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link ImageVariant} JPEGs of stored images on a small fixed pool of worker
+ * threads with a bounded queue. Uploads only enqueue: when the queue is full the image is
+ * skipped and clients keep using the original, so resizing never holds up a request.
+ */
+@Service
+public class ImageVariantService {
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final float JPEG_QUALITY = 0.82f;
+    // refuse to decode anything larger, whatever its file size
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    private final UploadStore store;
+    private final ThreadPoolExecutor workers;
+
+    public ImageVariantService(UploadStore store,
+                               @Value("${grouply.images.workers:2}") int workers,
+                               @Value("${grouply.images.queue-capacity:100}") int queueCapacity) {
+        this.store = store;
+        var threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    var t = new Thread(r, "image-variants-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    // below request threads, it is background work
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues variant generation for a stored file. Returns false if it is not an image
+     * or the queue is full; true if the variants exist or will be generated.
+     */
+    public boolean schedule(UploadStore.StoredFile file) {
+        if (!isImage(file.storageKey())) return false;
+        var source = store.root().resolve(file.storageKey());
+        if (allExist(file.sha256())) return true;
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(source, file.sha256());
+                } catch (IOException | RuntimeException ex) {
+                    // not a readable image after all; the original is still served
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    private boolean allExist(String sha256) {
+        for (var v : ImageVariant.values()) {
+            if (!Files.exists(store.variantPath(sha256, v))) return false;
+        }
+        return true;
+    }
+
+    void generate(Path source, String sha256) throws IOException {
+        BufferedImage image = decode(source, ImageVariant.FULL.maxSize);
+        if (image == null) return;
+        // largest first, so each variant is scaled from the previous one instead of the original
+        var variants = ImageVariant.values();
+        for (int i = variants.length - 1; i >= 0; i--) {
+            image = scale(image, variants[i].maxSize);
+            write(image, store.variantPath(sha256, variants[i]));
+        }
+    }
+
+    /**
+     * Decodes the first frame, subsampled while reading when the source is more than twice
+     * the size needed, so a large photo is never held in memory at full resolution.
+     */
+    private static BufferedImage decode(Path source, int needed) throws IOException {
+        try (var in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            var readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            var reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int w = reader.getWidth(0), h = reader.getHeight(0);
+                if ((long) w * h > MAX_PIXELS) return null;
+                var param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(w, h) / (needed * 2));
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // halves with bilinear filtering until close, then one last step to the exact size
+    private static BufferedImage scale(BufferedImage src, int maxSize) {
+        int w = src.getWidth(), h = src.getHeight();
+        double factor = Math.min(1.0, maxSize / (double) Math.max(w, h));
+        int tw = Math.max(1, (int) Math.round(w * factor));
+        int th = Math.max(1, (int) Math.round(h * factor));
+
+        var current = src;
+        while (w / 2 >= tw && h / 2 >= th) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h);
+        }
+        // JPEG has no alpha, so the last draw also flattens onto white
+        if (current.getType() != BufferedImage.TYPE_INT_RGB || w != tw || h != th) {
+            current = draw(current, tw, th);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage src, int w, int h) {
+        var out = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        var g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    // written next to the target and moved into place, so a half-written variant is never served
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        var tmp = Files.createTempFile(target.getParent(), ".variant-", ".part");
+        try {
+            var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (var out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                writer.setOutput(out);
+                var param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isImage(String storageKey) {
+        int dot = storageKey.lastIndexOf('.');
+        return dot >= 0 && IMAGE_EXTENSIONS.contains(storageKey.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+}
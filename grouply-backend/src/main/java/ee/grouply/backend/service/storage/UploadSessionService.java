@@ -0,0 +1,204 @@
+package ee.grouply.backend.service.storage;
+
+import ee.grouply.backend.domain.UploadSession;
+import ee.grouply.backend.dto.UploadSessionCreateDTO;
+import ee.grouply.backend.dto.UploadSessionDTO;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.UploadSessionRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Resumable uploads: a session is created with the file size, chunks are PUT at chunk
+ * aligned offsets in any order and written in place with positional FileChannel writes,
+ * and completing the session hashes the assembled file and hands it to the
+ * {@link UploadStore}. A request only ever holds one chunk, streamed through a small
+ * channel buffer, so memory per upload does not depend on the file size.
+ */
+@Service
+public class UploadSessionService {
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    private final UploadSessionRepository repository;
+    private final UploadStore store;
+    private final TransactionTemplate tx;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final long maxSize;
+    private final Duration ttl;
+
+    public UploadSessionService(UploadSessionRepository repository,
+                                UploadStore store,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${grouply.uploads.chunk-size:5MB}") DataSize defaultChunkSize,
+                                @Value("${grouply.uploads.max-chunk-size:10MB}") DataSize maxChunkSize,
+                                @Value("${grouply.uploads.max-size:2GB}") DataSize maxSize,
+                                @Value("${grouply.uploads.session-ttl:24h}") Duration ttl) {
+        this.repository = repository;
+        this.store = store;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.maxChunkSize = (int) Math.min(Integer.MAX_VALUE, maxChunkSize.toBytes());
+        this.defaultChunkSize = (int) Math.min(this.maxChunkSize, defaultChunkSize.toBytes());
+        this.maxSize = maxSize.toBytes();
+        this.ttl = ttl;
+    }
+
+    public UploadSessionDTO create(UploadSessionCreateDTO dto) throws IOException {
+        if (dto.size > maxSize) throw new IllegalArgumentException("File is larger than " + maxSize + " bytes");
+        int chunkSize = dto.chunkSize == null ? defaultChunkSize : dto.chunkSize;
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(chunkSize, maxChunkSize));
+        var session = new UploadSession(UUID.randomUUID().toString(), dto.filename, dto.contentType, dto.size, chunkSize);
+        Files.createDirectories(partPath(session.getId()).getParent());
+        return toDto(repository.save(session));
+    }
+
+    public UploadSessionDTO status(String id) {
+        return toDto(find(id));
+    }
+
+    /**
+     * Writes one chunk at its offset. The body must be exactly the chunk (the last one may be
+     * shorter); sending a chunk again overwrites it, so a failed PUT can simply be retried.
+     */
+    public UploadSessionDTO writeChunk(String id, long offset, long contentLength, InputStream body) throws IOException {
+        var session = find(id);
+        if (offset < 0 || offset >= session.getSize() || offset % session.getChunkSize() != 0) {
+            throw new IllegalArgumentException("Offset must be a multiple of " + session.getChunkSize() + " below " + session.getSize());
+        }
+        long expected = Math.min(session.getChunkSize(), session.getSize() - offset);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new IllegalArgumentException("Chunk at " + offset + " must be " + expected + " bytes");
+        }
+
+        try (var src = Channels.newChannel(body);
+             var out = FileChannel.open(partPath(id), StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            long written = 0, n;
+            while (written < expected && (n = out.transferFrom(src, offset + written, expected - written)) > 0) {
+                written += n;
+            }
+            // without a Content-Length the only way to spot an oversized chunk is to look for more
+            if (written != expected || src.read(ByteBuffer.allocate(1)) > 0) {
+                throw new IllegalArgumentException("Chunk at " + offset + " must be " + expected + " bytes");
+            }
+        }
+
+        int chunk = (int) (offset / session.getChunkSize());
+        var updated = tx.execute(status -> {
+            var locked = repository.findForUpdate(id).orElseThrow(() -> notFound(id));
+            locked.markReceived(chunk);
+            return locked;
+        });
+        return toDto(updated);
+    }
+
+    /**
+     * Stores the assembled file once every chunk is in. With sha256 given, the content must
+     * hash to it, which catches chunks that were corrupted or sent at the wrong offset.
+     */
+    public UploadStore.StoredFile complete(String id, String expectedSha256) throws IOException {
+        var session = find(id);
+        if (session.receivedChunks().cardinality() != session.chunkCount()) {
+            throw new IllegalArgumentException("Upload " + id + " is missing chunks");
+        }
+        var part = partPath(id);
+        var sha = hash(part);
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha)) {
+            throw new IllegalArgumentException("Content does not match sha256 " + expectedSha256);
+        }
+        var stored = store.storeFile(part, sha, session.getSize(), session.getFilename(), session.getContentType());
+        discard(id);
+        return stored;
+    }
+
+    public void abort(String id) throws IOException {
+        find(id);
+        discard(id);
+    }
+
+    @Scheduled(fixedDelayString = "${grouply.uploads.cleanup-interval:1h}", initialDelayString = "${grouply.uploads.cleanup-interval:1h}")
+    public void deleteExpired() throws IOException {
+        for (var id : repository.findExpiredIds(OffsetDateTime.now().minus(ttl))) {
+            discard(id);
+        }
+    }
+
+    private void discard(String id) throws IOException {
+        repository.deleteById(id);
+        Files.deleteIfExists(partPath(id));
+    }
+
+    private UploadSession find(String id) {
+        var session = repository.findById(id).orElseThrow(() -> notFound(id));
+        if (session.getCreatedAt().isBefore(OffsetDateTime.now().minus(ttl))) throw notFound(id);
+        return session;
+    }
+
+    private static NotFoundException notFound(String id) {
+        return new NotFoundException("Upload session " + id + " not found");
+    }
+
+    // ids are UUIDs, so they are safe as file names
+    private Path partPath(String id) {
+        return store.tmpDir().resolve("sessions").resolve(UUID.fromString(id) + ".part");
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        var buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (var in = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private UploadSessionDTO toDto(UploadSession session) {
+        var dto = new UploadSessionDTO();
+        dto.id = session.getId();
+        dto.filename = session.getFilename();
+        dto.size = session.getSize();
+        dto.chunkSize = session.getChunkSize();
+        dto.chunkCount = session.chunkCount();
+        dto.missingOffsets = new ArrayList<>();
+        var received = session.receivedChunks();
+        for (int i = 0; i < dto.chunkCount; i++) {
+            long offset = (long) i * session.getChunkSize();
+            if (received.get(i)) {
+                dto.receivedBytes += Math.min(session.getChunkSize(), session.getSize() - offset);
+            } else {
+                dto.missingOffsets.add(offset);
+            }
+        }
+        dto.expiresAt = session.getCreatedAt().plus(ttl);
+        return dto;
+    }
+}
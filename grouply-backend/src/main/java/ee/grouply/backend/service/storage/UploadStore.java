@@ -0,0 +1,229 @@
+package ee.grouply.backend.service.storage;
+
+import ee.grouply.backend.domain.ImageVariant;
+import ee.grouply.backend.domain.StoredObject;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.StoredObjectRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for uploads. A file is hashed while it is streamed to a temp file
+ * and then moved atomically to ab/cd/&lt;sha256&gt;.ext below the upload dir, so the same
+ * content uploaded twice is kept once and gets the same URL. Each stored file has a
+ * {@link StoredObject} row counting the events that use it; files nobody references are
+ * deleted by {@link #collectGarbage()} after a grace period, which covers the gap between
+ * an upload and the save of the event that uses it.
+ *
+ * <p>The object row is locked while its file is created or deleted, so an upload and the
+ * garbage collector never act on the same file at once.
+ */
+@Service
+public class UploadStore {
+    public static final String URL_PREFIX = "/files/";
+
+    // ab/cd/<sha256>.ext, optionally behind scheme and host
+    private static final Pattern STORE_URL =
+            Pattern.compile("^(?:https?://[^/]+)?/files/([0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(?:\\.[a-z0-9]{1,10})?)$");
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    private static final int GC_BATCH = 500;
+
+    public record StoredFile(String url, String storageKey, String sha256, long size, boolean deduplicated) {}
+
+    private final StoredObjectRepository repository;
+    private final EventRepository eventRepository;
+    private final TransactionTemplate tx;
+    private final Path root;
+    private final Path tmpDir;
+    private final Duration gcGrace;
+
+    public UploadStore(StoredObjectRepository repository,
+                       EventRepository eventRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${grouply.upload-dir}") String uploadDir,
+                       @Value("${grouply.storage.gc-grace:24h}") Duration gcGrace) {
+        this.repository = repository;
+        this.eventRepository = eventRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.root = Paths.get("").toAbsolutePath().resolve(uploadDir).normalize();
+        // same file system as the objects, so the final move can be atomic
+        this.tmpDir = root.resolve(".tmp");
+        this.gcGrace = gcGrace;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    // scratch space on the same file system as the store
+    public Path tmpDir() {
+        return tmpDir;
+    }
+
+    // the stored file behind a store URL, or null for other URLs
+    public Path pathOf(String url) {
+        var key = keyOf(url);
+        return key == null ? null : root.resolve(key);
+    }
+
+    // rendition files are named after the content hash, shared by every extension of that content
+    public Path variantPath(String sha256, ImageVariant variant) {
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256 + variant.suffix());
+    }
+
+    public StoredFile store(InputStream in, String originalFilename, String contentType) throws IOException {
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            var digest = sha256();
+            long size = 0;
+            try (var src = Channels.newChannel(new DigestInputStream(in, digest));
+                 var out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                long n;
+                while ((n = out.transferFrom(src, size, TRANSFER_CHUNK)) > 0) size += n;
+            }
+            return storeFile(tmp, HexFormat.of().formatHex(digest.digest()), size, originalFilename, contentType);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Publishes a complete file that was written below {@link #tmpDir()} and already hashed
+     * (e.g. an assembled chunked upload). The file is moved into the store or, if the content
+     * is already there, left for the caller to delete.
+     */
+    public StoredFile storeFile(Path file, String sha256, long size, String originalFilename, String contentType) throws IOException {
+        var key = sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + extensionOf(originalFilename);
+        boolean created = publish(file, key, sha256, size, contentType);
+        return new StoredFile(URL_PREFIX + key, key, sha256, size, !created);
+    }
+
+    // moves the temp file into place unless the content is already there; true if it was new
+    private boolean publish(Path tmp, String key, String sha, long size, String contentType) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return tx.execute(status -> {
+                    var existing = repository.findForUpdate(key);
+                    var target = root.resolve(key);
+                    boolean fileExists = Files.exists(target);
+                    try {
+                        if (!fileExists) {
+                            Files.createDirectories(target.getParent());
+                            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    if (existing.isPresent()) {
+                        // restarts the grace period for content uploaded again
+                        existing.get().setTouchedAt(OffsetDateTime.now());
+                    } else {
+                        var type = contentType == null || contentType.length() > 200 ? null : contentType;
+                        repository.saveAndFlush(new StoredObject(key, sha, size, type));
+                    }
+                    return !fileExists;
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            } catch (DataIntegrityViolationException ex) {
+                // a concurrent upload of the same content inserted the row first; the retry finds it
+                if (attempt > 0) throw ex;
+            }
+        }
+    }
+
+    // counts a new reference from an event; URLs outside the store are ignored
+    @Transactional
+    public void retain(String url) {
+        var key = keyOf(url);
+        if (key != null) repository.addToRefCount(key, 1, OffsetDateTime.now());
+    }
+
+    @Transactional
+    public void release(String url) {
+        var key = keyOf(url);
+        if (key != null) repository.addToRefCount(key, -1, OffsetDateTime.now());
+    }
+
+    /**
+     * Deletes files no event references once they are older than the grace period.
+     * Before deleting, the count is checked against the events table, so a count that
+     * drifted (e.g. an event write that failed after its retain) is repaired instead.
+     */
+    @Scheduled(fixedDelayString = "${grouply.storage.gc-interval:1h}", initialDelayString = "${grouply.storage.gc-interval:1h}")
+    public int collectGarbage() {
+        var cutoff = OffsetDateTime.now().minus(gcGrace);
+        int deleted = 0;
+        for (var key : repository.findUnreferencedKeys(cutoff, Limit.of(GC_BATCH))) {
+            if (Boolean.TRUE.equals(tx.execute(status -> deleteIfUnreferenced(key, cutoff)))) deleted++;
+        }
+        return deleted;
+    }
+
+    private boolean deleteIfUnreferenced(String key, OffsetDateTime cutoff) {
+        var object = repository.findForUpdate(key).orElse(null);
+        if (object == null || object.getRefCount() > 0 || !object.getTouchedAt().isBefore(cutoff)) return false;
+        long users = eventRepository.countImageReferences(key);
+        if (users > 0) {
+            object.setRefCount((int) users);
+            return false;
+        }
+        repository.delete(object);
+        repository.flush();
+        // still under the row lock, so no upload of the same content can pick the file up meanwhile
+        try {
+            Files.deleteIfExists(root.resolve(key));
+            if (!repository.existsBySha256(object.getSha256())) {
+                for (var v : ImageVariant.values()) Files.deleteIfExists(variantPath(object.getSha256(), v));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return true;
+    }
+
+    static String keyOf(String url) {
+        if (url == null) return null;
+        var m = STORE_URL.matcher(url.trim());
+        return m.matches() ? m.group(1) : null;
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null) return "";
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) return "";
+        var ext = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.matches("[a-z0-9]{1,10}") ? "." + ext : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ee.grouply.backend.service.stream;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// new balances of the users a ledger write touched, tagged with the event's ledger version after it
+public record BalancesChanged(Long eventId, long version, Map<Long, BigDecimal> balances) {}
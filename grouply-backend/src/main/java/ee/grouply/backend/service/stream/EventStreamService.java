@@ -0,0 +1,241 @@
+package ee.grouply.backend.service.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ee.grouply.backend.dto.BalanceDTO;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.service.BalanceLedgerService;
+import ee.grouply.backend.service.UserLookup;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Live updates of an event over Server-Sent Events. Ledger writes publish
+ * {@link ExpenseAdded}, {@link BalancesChanged} and {@link ExpensesImported}; once the
+ * writing transaction has committed they are serialized once and fanned out to the
+ * subscribers of that event.
+ *
+ * <p>An idle subscriber is an async request with an empty queue: it holds no thread and
+ * no database connection, so thousands of open streams are cheap. Messages go through a
+ * small bounded queue per subscriber that is drained on a virtual thread, so the
+ * committing request never waits for a socket. A subscriber whose queue overflows is too
+ * slow to keep up and is disconnected; the browser reconnects with Last-Event-ID and is
+ * told to reload.
+ *
+ * <p>Messages:
+ * <ul>
+ *     <li>ready: sent on connect, data {eventId, version}</li>
+ *     <li>expense: a new expense, data is the ExpenseDTO</li>
+ *     <li>balances: data {eventId, version, balances: [BalanceDTO]} with the changed users
+ *     only; the SSE id is the ledger version. Messages of concurrent writes can arrive out
+ *     of order, so a client should keep, per user, the balance with the highest version.</li>
+ *     <li>reload: the client missed changes or they were too many to send; fetch again</li>
+ * </ul>
+ */
+@Service
+public class EventStreamService {
+    private final BalanceLedgerService ledger;
+    private final UserLookup userLookup;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("event-stream-", 0).factory());
+
+    public EventStreamService(BalanceLedgerService ledger,
+                              UserLookup userLookup,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${grouply.stream.max-subscribers:9000}") int maxSubscribers,
+                              @Value("${grouply.stream.queue-capacity:32}") int queueCapacity,
+                              @Value("${grouply.stream.timeout:30m}") Duration timeout) {
+        this.ledger = ledger;
+        this.userLookup = userLookup;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Opens a stream for the event. lastEventId is the version the client saw last when it
+     * reconnects; if the ledger moved on since then, the first message is a reload.
+     */
+    public SseEmitter subscribe(Long eventId, String lastEventId) {
+        // in a transaction of its own, so the connection goes back to the pool before the stream starts
+        var version = readOnlyTx.execute(status -> ledger.version(eventId));
+        if (version == null) throw new NotFoundException("Event with id " + eventId + " not found");
+        if (count.incrementAndGet() > maxSubscribers) {
+            count.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open event streams");
+        }
+
+        var subscriber = new Subscriber(eventId, new SseEmitter(timeoutMillis), queueCapacity);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(ex -> remove(subscriber));
+        // added inside compute, so it cannot land in a set that remove() is just dropping
+        subscribers.compute(eventId, (id, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+
+        var state = Map.of("eventId", eventId, "version", version);
+        boolean missed = lastEventId != null && !lastEventId.equals(String.valueOf(version));
+        offer(subscriber, message(missed ? "reload" : "ready", String.valueOf(version), state));
+        return subscriber.emitter;
+    }
+
+    public int subscriberCount() {
+        return count.get();
+    }
+
+    @TransactionalEventListener
+    public void on(ExpenseAdded change) {
+        broadcast(change.eventId(), () -> message("expense", null, change.expense()));
+    }
+
+    @TransactionalEventListener
+    public void on(BalancesChanged change) {
+        broadcast(change.eventId(), () -> {
+            var names = userLookup.namesById(change.balances().keySet());
+            List<BalanceDTO> balances = new ArrayList<>();
+            for (var b : new TreeMap<>(change.balances()).entrySet()) {
+                var dto = new BalanceDTO();
+                dto.userId = b.getKey();
+                dto.name = names.getOrDefault(b.getKey(), "Unknown");
+                dto.balance = b.getValue();
+                balances.add(dto);
+            }
+            var data = Map.of("eventId", change.eventId(), "version", change.version(), "balances", balances);
+            return message("balances", String.valueOf(change.version()), data);
+        });
+    }
+
+    // the import runs its own chunk transactions, so this may be published outside of one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ExpensesImported change) {
+        broadcast(change.eventId(), () -> message("reload", null, Map.of("eventId", change.eventId(), "imported", change.count())));
+    }
+
+    // keeps idle connections open through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${grouply.stream.heartbeat:25s}", initialDelayString = "${grouply.stream.heartbeat:25s}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (var set : subscribers.values()) {
+            for (var s : set) offer(s, ping);
+        }
+    }
+
+    // the message is built once, and only if someone is listening
+    private void broadcast(Long eventId, Supplier<Set<DataWithMediaType>> message) {
+        var set = subscribers.get(eventId);
+        if (set == null || set.isEmpty()) return;
+        var built = message.get();
+        for (var s : set) offer(s, built);
+    }
+
+    private Set<DataWithMediaType> message(String name, String id, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        var event = SseEmitter.event().name(name);
+        if (id != null) event.id(id);
+        return event.data(json, MediaType.APPLICATION_JSON).build();
+    }
+
+    private void offer(Subscriber s, Set<DataWithMediaType> message) {
+        if (s.closed.get()) return;
+        if (!s.queue.offer(message)) {
+            // too far behind; buffering more would only grow memory for a client that cannot keep up
+            drop(s);
+            return;
+        }
+        if (s.draining.compareAndSet(false, true)) senders.execute(() -> drain(s));
+    }
+
+    // runs on a virtual thread, so a send blocked on a slow socket only parks that thread
+    private void drain(Subscriber s) {
+        while (true) {
+            var message = s.queue.poll();
+            if (message == null) {
+                s.draining.set(false);
+                // a message offered after the poll but before the flag was cleared would be stranded
+                if (s.queue.isEmpty() || !s.draining.compareAndSet(false, true)) return;
+                continue;
+            }
+            if (s.closed.get()) return;
+            try {
+                s.emitter.send(message);
+            } catch (Exception ex) {
+                drop(s);
+                return;
+            }
+        }
+    }
+
+    private void drop(Subscriber s) {
+        if (!remove(s)) return;
+        s.queue.clear();
+        // complete() waits for a send in progress, so never on the publishing thread
+        senders.execute(s.emitter::complete);
+    }
+
+    private boolean remove(Subscriber s) {
+        if (!s.closed.compareAndSet(false, true)) return false;
+        count.decrementAndGet();
+        subscribers.computeIfPresent(s.eventId, (id, set) -> {
+            set.remove(s);
+            return set.isEmpty() ? null : set;
+        });
+        return true;
+    }
+
+    private static final class Subscriber {
+        final Long eventId;
+        final SseEmitter emitter;
+        final BlockingQueue<Set<DataWithMediaType>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Long eventId, SseEmitter emitter, int queueCapacity) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ee.grouply.backend.service.stream;
+
+import ee.grouply.backend.dto.ExpenseDTO;
+
+// published by ExpenseService when an expense is created; delivered to streams after commit
+public record ExpenseAdded(Long eventId, ExpenseDTO expense) {}
@@ -0,0 +1,4 @@
+package ee.grouply.backend.service.stream;
+
+// too many rows to push one by one; streams tell clients to reload instead
+public record ExpensesImported(Long eventId, long count) {}
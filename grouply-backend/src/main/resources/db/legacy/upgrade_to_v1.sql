@@ -0,0 +1,71 @@
+-- Brings a schema that ddl-auto=update created, from any build before the migrations, up to
+-- what V1 creates, so it can be baselined at V1. Every statement is a no-op where the
+-- object is already there. Run by FlywayConfig, never by Flyway itself.
+-- Kept to SQL that PostgreSQL and H2 both accept.
+
+create sequence if not exists app_user_seq start with 1 increment by 50;
+create sequence if not exists event_seq start with 1 increment by 50;
+create sequence if not exists event_balance_seq start with 1 increment by 50;
+create sequence if not exists expense_seq start with 1 increment by 50;
+create sequence if not exists expense_share_seq start with 1 increment by 50;
+create sequence if not exists payment_seq start with 1 increment by 50;
+create sequence if not exists stored_object_seq start with 1 increment by 50;
+
+alter table event add column if not exists ledger_version bigint default 0 not null;
+
+create table if not exists event_balance (
+    id bigint not null,
+    event_id bigint not null,
+    user_id bigint not null,
+    balance numeric(14,2) not null,
+    primary key (id),
+    constraint event_balance_event_user_key unique (event_id, user_id)
+);
+
+create table if not exists stored_object (
+    id bigint not null,
+    storage_key varchar(200) not null,
+    sha256 varchar(64) not null,
+    size bigint not null,
+    content_type varchar(200),
+    ref_count integer not null,
+    touched_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint stored_object_storage_key_key unique (storage_key)
+);
+
+create table if not exists upload_session (
+    id varchar(36) not null,
+    filename varchar(255),
+    content_type varchar(200),
+    size bigint not null,
+    chunk_size integer not null,
+    received bytea not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+-- Hibernate wrote the enum check when only EQUAL, RATIO and PERCENTAGE existed and never
+-- widens it. The name is the one PostgreSQL gives a column check.
+alter table expense drop constraint if exists expense_split_mode_check;
+alter table expense add constraint expense_split_mode_check
+    check (split_mode in ('EQUAL','RATIO','PERCENTAGE','FIXED','UNITS'));
+
+-- Ledger rows for events that have none, from their expense and payment history (the same
+-- sums as BalanceLedgerService.recomputeBalancesForEvent). Events that got ledger rows
+-- from a build with the ledger are left to POST /api/events/{id}/balances/rebuild.
+-- The ids are numbered here; V3 moves event_balance_seq past them.
+insert into event_balance (id, event_id, user_id, balance)
+select coalesce((select max(id) from event_balance), 0) + row_number() over (order by d.event_id, d.user_id),
+       d.event_id, d.user_id, sum(d.delta)
+from (
+    select x.event_id, x.payer_id as user_id, -x.amount as delta from expense x
+    union all
+    select x.event_id, s.user_id, s.amount from expense_share s join expense x on x.id = s.expense_id
+    union all
+    select p.event_id, p.from_user_id, -p.amount from payment p where p.settled
+    union all
+    select p.event_id, p.to_user_id, p.amount from payment p where p.settled
+) d
+where not exists (select 1 from event_balance b where b.event_id = d.event_id)
+group by d.event_id, d.user_id;
@@ -0,0 +1,100 @@
+-- Schema as Hibernate's ddl-auto=update left it. Databases created that way are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and only run the migrations after it.
+-- Kept to SQL that PostgreSQL and H2 both accept.
+
+-- allocationSize 50 on every @SequenceGenerator
+create sequence app_user_seq start with 1 increment by 50;
+create sequence event_seq start with 1 increment by 50;
+create sequence event_balance_seq start with 1 increment by 50;
+create sequence expense_seq start with 1 increment by 50;
+create sequence expense_share_seq start with 1 increment by 50;
+create sequence payment_seq start with 1 increment by 50;
+create sequence stored_object_seq start with 1 increment by 50;
+
+create table app_user (
+    id bigint not null,
+    name varchar(255),
+    email varchar(255),
+    primary key (id)
+);
+
+create table event (
+    id bigint not null,
+    title varchar(255),
+    description varchar(5000),
+    date_time timestamp(6),
+    location varchar(255),
+    capacity integer,
+    image_url varchar(2048),
+    ledger_version bigint default 0 not null,
+    primary key (id)
+);
+
+create table event_balance (
+    id bigint not null,
+    event_id bigint not null,
+    user_id bigint not null,
+    balance numeric(14,2) not null,
+    primary key (id),
+    constraint event_balance_event_user_key unique (event_id, user_id)
+);
+
+create table expense (
+    id bigint not null,
+    event_id bigint not null,
+    payer_id bigint not null,
+    amount numeric(12,2) not null,
+    description varchar(2000),
+    split_mode varchar(255),
+    created_at timestamp(6) with time zone,
+    primary key (id),
+    constraint expense_split_mode_check check (split_mode in ('EQUAL','RATIO','PERCENTAGE','FIXED','UNITS')),
+    constraint expense_payer_fk foreign key (payer_id) references app_user
+);
+
+create table expense_share (
+    id bigint not null,
+    expense_id bigint not null,
+    user_id bigint not null,
+    amount numeric(12,2) not null,
+    share_value float(53),
+    primary key (id),
+    constraint expense_share_expense_fk foreign key (expense_id) references expense,
+    constraint expense_share_user_fk foreign key (user_id) references app_user
+);
+
+create table payment (
+    id bigint not null,
+    event_id bigint not null,
+    from_user_id bigint not null,
+    to_user_id bigint not null,
+    amount numeric(12,2) not null,
+    created_at timestamp(6) with time zone,
+    settled boolean not null,
+    primary key (id),
+    constraint payment_from_user_fk foreign key (from_user_id) references app_user,
+    constraint payment_to_user_fk foreign key (to_user_id) references app_user
+);
+
+create table stored_object (
+    id bigint not null,
+    storage_key varchar(200) not null,
+    sha256 varchar(64) not null,
+    size bigint not null,
+    content_type varchar(200),
+    ref_count integer not null,
+    touched_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint stored_object_storage_key_key unique (storage_key)
+);
+
+create table upload_session (
+    id varchar(36) not null,
+    filename varchar(255),
+    content_type varchar(200),
+    size bigint not null,
+    chunk_size integer not null,
+    received bytea not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id)
+);
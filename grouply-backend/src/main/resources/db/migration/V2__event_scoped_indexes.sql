@@ -0,0 +1,24 @@
+-- Indexes for the event-scoped reads, so their cost follows the size of the event rather
+-- than the size of the table. Columns after the lookup key make the indexes covering for
+-- the hot queries (PostgreSQL can answer them with index-only scans); INCLUDE would say
+-- the same but H2 does not support it. "if not exists" because baselined databases may
+-- have added some of these by hand.
+
+-- expense listing and pages (event_id = ? order by created_at desc, id desc, read backwards),
+-- the ledger export (same order, forwards) and the per-payer totals (payer_id, amount)
+create index if not exists expense_event_created_idx
+    on expense (event_id, created_at, id, payer_id, amount);
+
+-- shares are reached through their expense; user_id and amount cover the per-user totals
+-- and the share rows of the listings
+create index if not exists expense_share_expense_idx
+    on expense_share (expense_id, user_id, amount);
+
+-- foreign key side of expense_share.user_id, for user-scoped lookups and user deletes
+create index if not exists expense_share_user_idx
+    on expense_share (user_id);
+
+-- findByEventId and the ledger export (order by created_at, id); the settled totals filter
+-- on event_id and read from and to users from the heap, a handful of rows per event
+create index if not exists payment_event_created_idx
+    on payment (event_id, created_at, id);
@@ -0,0 +1,106 @@
+package ee.grouply.backend.config;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.Expense;
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.ExpenseRepository;
+import ee.grouply.backend.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database from before the migrations is upgraded to V1, baselined, migrated, and then
+ * passes ddl-auto=validate (the context would not start otherwise) and takes new rows.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlywayConfig.class)
+class FlywayConfigTest {
+    private static final String URL = "jdbc:h2:mem:legacy-upgrade;DB_CLOSE_DELAY=-1";
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (var connection = DriverManager.getConnection(URL, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/legacy_schema.sql"));
+        }
+        registry.add("spring.datasource.url", () -> URL);
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    ExpenseRepository expenses;
+    @Autowired
+    UserRepository users;
+    @Autowired
+    EventRepository events;
+
+    @Test
+    void baselinesAtV1AndRunsTheLaterMigrations() {
+        // Flyway quotes its own table, so it keeps the lower-case name on H2
+        var history = jdbc.queryForList(
+                "select \"version\" || ':' || \"type\" from \"flyway_schema_history\" where \"version\" is not null order by \"installed_rank\"", String.class);
+        assertThat(history).containsExactly("1:BASELINE", "2:SQL", "3:JDBC");
+    }
+
+    @Test
+    void fillsTheLedgerFromHistory() {
+        // Alice -90 + 30 + 10 + 10 received, Bob -30 + 30 + 20, Charlie 30 - 10 paid back;
+        // the unsettled payment does not count
+        assertThat(balances(1)).isEqualTo(Map.of(1L, "-40.00", 2L, "20.00", 3L, "20.00"));
+        assertThat(balances(2)).isEqualTo(Map.of(3L, "10.00", 4L, "-10.00"));
+    }
+
+    @Test
+    void upgradeScriptIsANoOpOnAnUpgradedSchema() throws SQLException {
+        try (var connection = DriverManager.getConnection(URL, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(FlywayConfig.LEGACY_UPGRADE));
+        }
+        assertThat(jdbc.queryForObject("select count(*) from event_balance", Long.class)).isEqualTo(5);
+    }
+
+    @Test
+    void newRowsGetIdsPastTheLegacyOnesAndNewSplitModes() {
+        var event = events.save(new Event("New", null, null, null, null));
+        assertThat(event.getId()).isGreaterThan(2);
+
+        var expense = new Expense();
+        expense.setEventId(event.getId());
+        expense.setPayer(users.findById(1L).orElseThrow());
+        expense.setAmount(new BigDecimal("12.00"));
+        expense.setSplitMode(SplitMode.FIXED);
+        expenses.saveAndFlush(expense);
+        assertThat(expense.getId()).isGreaterThan(3);
+
+        var user = users.saveAndFlush(new User("Eve", "e@x"));
+        assertThat(user.getId()).isGreaterThan(4);
+    }
+
+    private Map<Long, String> balances(long eventId) {
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "select user_id, balance from event_balance where event_id = ?", eventId);
+        return rows.stream().collect(java.util.stream.Collectors.toMap(
+                r -> ((Number) r.get("USER_ID")).longValue(),
+                r -> ((BigDecimal) r.get("BALANCE")).toPlainString()));
+    }
+}
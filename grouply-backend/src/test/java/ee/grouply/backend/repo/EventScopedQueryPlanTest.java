@@ -0,0 +1,80 @@
+package ee.grouply.backend.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The event-scoped reads must go through the V2 indexes on H2. The SQL is what Hibernate
+ * generates for the repository queries, trimmed to the parts that matter to the plan.
+ * expense_share_user_idx is left out: H2 indexes every foreign key by itself and uses that
+ * one, the V2 index is for PostgreSQL, which does not.
+ */
+@JdbcTest
+class EventScopedQueryPlanTest {
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("insert into app_user (id, name) values (1, 'Alice'), (2, 'Bob')");
+        for (long id = 1; id <= 20; id++) {
+            jdbc.update("insert into expense (id, event_id, payer_id, amount, split_mode, created_at) " +
+                    "values (?, ?, 1, 10, 'EQUAL', current_timestamp)", id, id % 4);
+            jdbc.update("insert into expense_share (id, expense_id, user_id, amount) values (?, ?, 2, 10)", id, id);
+            jdbc.update("insert into payment (id, event_id, from_user_id, to_user_id, amount, settled, created_at) " +
+                    "values (?, ?, 2, 1, 5, true, current_timestamp)", id, id % 4);
+        }
+    }
+
+    @Test
+    void expensePageUsesEventCreatedIndex() {
+        assertThat(plan("select e.id, p.name, e.amount from expense e join app_user p on p.id = e.payer_id " +
+                "where e.event_id = 1 order by e.created_at desc, e.id desc fetch first 21 rows only"))
+                .contains("EXPENSE_EVENT_CREATED_IDX");
+    }
+
+    @Test
+    void expensePageAfterCursorIsARangeOnEventCreatedIndex() {
+        assertThat(plan("select e.id, p.name, e.amount from expense e join app_user p on p.id = e.payer_id " +
+                "where e.event_id = 1 and e.created_at <= timestamp '2030-01-01 00:00:00' " +
+                "and (e.created_at < timestamp '2030-01-01 00:00:00' " +
+                "or (e.created_at = timestamp '2030-01-01 00:00:00' and e.id < 10)) " +
+                "order by e.created_at desc, e.id desc fetch first 21 rows only"))
+                .containsPattern("EXPENSE_EVENT_CREATED_IDX: EVENT_ID = .*\\s+AND CREATED_AT <=");
+    }
+
+    @Test
+    void payerTotalsUseEventCreatedIndex() {
+        assertThat(plan("select e.payer_id, sum(e.amount) from expense e where e.event_id = 1 group by e.payer_id"))
+                .contains("EXPENSE_EVENT_CREATED_IDX");
+    }
+
+    @Test
+    void shareRowsOfAPageUseExpenseIndex() {
+        assertThat(plan("select s.expense_id, u.name, s.amount from expense_share s join app_user u on u.id = s.user_id " +
+                "where s.expense_id in (1, 2, 3) order by s.id"))
+                .contains("EXPENSE_SHARE_EXPENSE_IDX");
+    }
+
+    @Test
+    void shareTotalsReachSharesThroughTheirExpense() {
+        assertThat(plan("select s.user_id, sum(s.amount) from expense_share s join expense e on e.id = s.expense_id " +
+                "where e.event_id = 1 group by s.user_id"))
+                .contains("EXPENSE_EVENT_CREATED_IDX", "EXPENSE_SHARE_EXPENSE_IDX");
+    }
+
+    @Test
+    void paymentsOfAnEventUseEventCreatedIndex() {
+        assertThat(plan("select p.id, p.amount from payment p where p.event_id = 1 order by p.created_at, p.id"))
+                .contains("PAYMENT_EVENT_CREATED_IDX");
+    }
+
+    private String plan(String sql) {
+        return jdbc.queryForObject("explain " + sql, String.class).toUpperCase();
+    }
+}
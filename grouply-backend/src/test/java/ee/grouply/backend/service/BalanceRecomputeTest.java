@@ -0,0 +1,198 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.Expense;
+import ee.grouply.backend.domain.ExpenseShare;
+import ee.grouply.backend.domain.Payment;
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.error.NotFoundException;
+import ee.grouply.backend.repo.LedgerVersionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link BalanceLedgerService#recomputeBalancesForEvent} sums in SQL; it must agree with
+ * walking the event's expense, share and payment entities one by one.
+ */
+@DataJpaTest
+@Import({BalanceLedgerService.class, LedgerVersionRepository.class})
+class BalanceRecomputeTest {
+    @Autowired
+    BalanceLedgerService ledger;
+    @Autowired
+    EntityManager em;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            var u = new User("User " + i, null);
+            em.persist(u);
+            users.add(u);
+        }
+    }
+
+    @Test
+    void matchesAnEntityWalkOnRandomHistories() {
+        var random = new Random(42);
+        for (long eventId = 1; eventId <= 20; eventId++) {
+            int expenses = random.nextInt(15);
+            for (int i = 0; i < expenses; i++) {
+                var participants = new ArrayList<User>();
+                for (var u : users) {
+                    if (random.nextInt(3) > 0) participants.add(u);
+                }
+                if (participants.isEmpty()) participants.add(users.get(0));
+                long[] cents = new long[participants.size()];
+                for (int j = 0; j < cents.length; j++) cents[j] = random.nextInt(10_000);
+                expense(eventId, users.get(random.nextInt(users.size())), participants, cents);
+            }
+            int payments = random.nextInt(6);
+            for (int i = 0; i < payments; i++) {
+                var from = users.get(random.nextInt(users.size()));
+                var to = users.get(random.nextInt(users.size()));
+                payment(eventId, from, to, random.nextInt(1, 5_000), random.nextBoolean());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        for (long eventId = 1; eventId <= 20; eventId++) {
+            assertThat(scaled(ledger.recomputeBalancesForEvent(eventId)))
+                    .as("event %d", eventId)
+                    .isEqualTo(scaled(walk(eventId)));
+        }
+    }
+
+    @Test
+    void settledPaymentsMoveBalancesAndOpenOnesDoNot() {
+        var alice = users.get(0);
+        var bob = users.get(1);
+        var carol = users.get(2);
+        expense(1L, alice, List.of(alice, bob, carol), new long[]{3000, 3000, 3000});
+        payment(1L, bob, alice, 3000, true);
+        payment(1L, carol, alice, 1000, false);
+        // carol pays bob directly: carol only appears through a settled payment here
+        payment(2L, carol, bob, 500, true);
+        em.flush();
+        em.clear();
+
+        var event1 = scaled(ledger.recomputeBalancesForEvent(1L));
+        assertThat(event1).isEqualTo(Map.of(
+                alice.getId(), new BigDecimal("-30.00"),
+                bob.getId(), new BigDecimal("0.00"),
+                carol.getId(), new BigDecimal("30.00")));
+        assertThat(event1).isEqualTo(scaled(walk(1L)));
+
+        var event2 = scaled(ledger.recomputeBalancesForEvent(2L));
+        assertThat(event2).isEqualTo(Map.of(
+                carol.getId(), new BigDecimal("-5.00"),
+                bob.getId(), new BigDecimal("5.00")));
+        assertThat(event2).isEqualTo(scaled(walk(2L)));
+    }
+
+    @Test
+    void settlingAPaymentLaterIsPickedUp() {
+        var alice = users.get(0);
+        var bob = users.get(1);
+        expense(3L, alice, List.of(bob), new long[]{2500});
+        var p = payment(3L, bob, alice, 2500, false);
+        em.flush();
+        assertThat(scaled(ledger.recomputeBalancesForEvent(3L)).get(bob.getId())).isEqualByComparingTo("25.00");
+
+        p.setSettled(true);
+        em.flush();
+        em.clear();
+        var balances = scaled(ledger.recomputeBalancesForEvent(3L));
+        assertThat(balances.get(alice.getId())).isEqualByComparingTo("0");
+        assertThat(balances.get(bob.getId())).isEqualByComparingTo("0");
+        assertThat(balances).isEqualTo(scaled(walk(3L)));
+    }
+
+    @Test
+    void anEventWithoutHistoryHasNoBalances() {
+        assertThat(ledger.recomputeBalancesForEvent(99L)).isEmpty();
+        assertThat(walk(99L)).isEmpty();
+    }
+
+    @Test
+    void ledgerWritesToAMissingEventAreNotFound() {
+        var deltas = Map.of(users.get(0).getId(), BigDecimal.TEN);
+        assertThatThrownBy(() -> ledger.applyDeltas(99L, deltas)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> ledger.rebuild(99L)).isInstanceOf(NotFoundException.class);
+        assertThat(ledger.balancesForEvent(99L)).isEmpty();
+    }
+
+    /** The entity-graph walk recomputeBalancesForEvent replaced. */
+    private Map<Long, BigDecimal> walk(Long eventId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        var expenses = em.createQuery("select e from Expense e where e.eventId = :eventId", Expense.class)
+                .setParameter("eventId", eventId).getResultList();
+        for (var e : expenses) {
+            balances.merge(e.getPayer().getId(), e.getAmount().negate(), BigDecimal::add);
+            for (var s : e.getShares()) {
+                balances.merge(s.getUser().getId(), s.getAmount(), BigDecimal::add);
+            }
+        }
+        var payments = em.createQuery("select p from Payment p where p.eventId = :eventId", Payment.class)
+                .setParameter("eventId", eventId).getResultList();
+        for (var p : payments) {
+            if (!p.isSettled()) continue;
+            balances.merge(p.getFromUser().getId(), p.getAmount().negate(), BigDecimal::add);
+            balances.merge(p.getToUser().getId(), p.getAmount(), BigDecimal::add);
+        }
+        return balances;
+    }
+
+    private static Map<Long, BigDecimal> scaled(Map<Long, BigDecimal> balances) {
+        Map<Long, BigDecimal> out = new TreeMap<>();
+        balances.forEach((k, v) -> out.put(k, v.setScale(2)));
+        return out;
+    }
+
+    private void expense(Long eventId, User payer, List<User> participants, long[] cents) {
+        var e = new Expense();
+        e.setEventId(eventId);
+        e.setPayer(payer);
+        e.setSplitMode(SplitMode.RATIO);
+        long total = 0;
+        for (int i = 0; i < cents.length; i++) {
+            var s = new ExpenseShare();
+            s.setExpense(e);
+            s.setUser(participants.get(i));
+            s.setAmount(BigDecimal.valueOf(cents[i], 2));
+            e.getShares().add(s);
+            total += cents[i];
+        }
+        e.setAmount(BigDecimal.valueOf(total, 2));
+        em.persist(e);
+    }
+
+    private Payment payment(Long eventId, User from, User to, long cents, boolean settled) {
+        var p = new Payment();
+        p.setEventId(eventId);
+        p.setFromUser(from);
+        p.setToUser(to);
+        p.setAmount(BigDecimal.valueOf(cents, 2));
+        p.setSettled(settled);
+        em.persist(p);
+        return p;
+    }
+}
@@ -0,0 +1,135 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.service.search.EventSearchIndex;
+import ee.grouply.backend.service.storage.UploadStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+/**
+ * An event write and the image reference counts it changes commit or roll back together,
+ * and the search index only sees what committed.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({EventService.class, EventSearchIndex.class})
+class EventServiceTest {
+    private static final String IMAGE = "/files/ab/cd/abcd.png";
+    private static final String OTHER_IMAGE = "/files/ef/01/ef01.png";
+
+    @Autowired
+    EventService events;
+    @Autowired
+    EventRepository eventRepository;
+    @Autowired
+    EventSearchIndex index;
+
+    @MockitoBean
+    UploadStore uploadStore;
+
+    @BeforeEach
+    void emptyIndex() {
+        index.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void createRetainsTheImageAndIndexesTheEvent() {
+        var saved = events.create(event("Jazz concert", IMAGE));
+
+        assertThat(eventRepository.findById(saved.getId())).isPresent();
+        assertThat(search("jazz")).containsExactly(saved.getId());
+        verify(uploadStore).retain(IMAGE);
+    }
+
+    @Test
+    void aFailedRetainRollsTheEventBack() {
+        doThrow(new IllegalStateException("store down")).when(uploadStore).retain(IMAGE);
+
+        assertThatThrownBy(() -> events.create(event("Jazz concert", IMAGE))).isInstanceOf(IllegalStateException.class);
+
+        assertThat(eventRepository.count()).isZero();
+        assertThat(search("jazz")).isEmpty();
+    }
+
+    @Test
+    void updateMovesTheImageReferenceAndReindexes() {
+        var saved = events.create(event("Jazz concert", IMAGE));
+
+        events.update(saved.getId(), event("Rock concert", OTHER_IMAGE));
+
+        var order = inOrder(uploadStore);
+        order.verify(uploadStore).retain(OTHER_IMAGE);
+        order.verify(uploadStore).release(IMAGE);
+        assertThat(search("jazz")).isEmpty();
+        assertThat(search("rock")).containsExactly(saved.getId());
+    }
+
+    @Test
+    void aFailedReleaseRollsTheUpdateBack() {
+        var saved = events.create(event("Jazz concert", IMAGE));
+        doThrow(new IllegalStateException("store down")).when(uploadStore).release(IMAGE);
+
+        assertThatThrownBy(() -> events.update(saved.getId(), event("Rock concert", OTHER_IMAGE)))
+                .isInstanceOf(IllegalStateException.class);
+
+        var stored = eventRepository.findById(saved.getId()).orElseThrow();
+        assertThat(stored.getTitle()).isEqualTo("Jazz concert");
+        assertThat(stored.getImageUrl()).isEqualTo(IMAGE);
+        assertThat(search("jazz")).containsExactly(saved.getId());
+        assertThat(search("rock")).isEmpty();
+    }
+
+    @Test
+    void deleteReleasesTheImageAndUnindexes() {
+        var saved = events.create(event("Jazz concert", IMAGE));
+
+        events.delete(saved.getId());
+
+        verify(uploadStore).release(IMAGE);
+        assertThat(eventRepository.findById(saved.getId())).isEmpty();
+        assertThat(search("jazz")).isEmpty();
+    }
+
+    @Test
+    void aFailedReleaseKeepsTheDeletedEvent() {
+        var saved = events.create(event("Jazz concert", IMAGE));
+        doThrow(new IllegalStateException("store down")).when(uploadStore).release(IMAGE);
+
+        assertThatThrownBy(() -> events.delete(saved.getId())).isInstanceOf(IllegalStateException.class);
+
+        assertThat(eventRepository.findById(saved.getId())).isPresent();
+        assertThat(search("jazz")).containsExactly(saved.getId());
+    }
+
+    private List<Long> search(String query) {
+        return index.search(query, null, null, null);
+    }
+
+    private static Event event(String title, String imageUrl) {
+        var e = new Event(title, null, LocalDateTime.of(2026, 6, 1, 19, 0), "Tallinn", 100);
+        e.setImageUrl(imageUrl);
+        return e;
+    }
+}
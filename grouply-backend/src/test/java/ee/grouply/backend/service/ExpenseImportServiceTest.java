@@ -0,0 +1,89 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.LedgerVersionRepository;
+import ee.grouply.backend.repo.UserRepository;
+import ee.grouply.backend.service.split.SplitEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Rows referring to unknown users are rejected per row; the users of each chunk are
+ * looked up with one findAllById, never the whole user table.
+ */
+@DataJpaTest
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({ExpenseImportService.class, ExpenseService.class, BalanceLedgerService.class, LedgerVersionRepository.class,
+        UserLookup.class, SplitEngine.class})
+class ExpenseImportServiceTest {
+    @Autowired
+    ExpenseImportService importService;
+    @Autowired
+    BalanceLedgerService ledger;
+    @Autowired
+    EventRepository eventRepository;
+
+    @MockitoSpyBean
+    UserRepository userRepository;
+    @MockitoBean
+    HotPathMetrics metrics;
+
+    private Long eventId;
+    private Long alice;
+    private Long bob;
+
+    @BeforeEach
+    void seed() {
+        eventId = eventRepository.save(new Event("Trip", null, null, null, null)).getId();
+        alice = userRepository.save(new User("Alice", null)).getId();
+        bob = userRepository.save(new User("Bob", null)).getId();
+        clearInvocations(userRepository);
+    }
+
+    @Test
+    void rejectsRowsWithUnknownUsersAndLooksUsersUpOncePerChunk() {
+        var csv = String.join("\n",
+                "payerId,amount,splitMode,shares",
+                alice + ",30,EQUAL," + alice + ";" + bob,
+                "999,10,EQUAL," + alice,
+                bob + ",20,EQUAL," + alice + ";" + bob,
+                alice + ",10,EQUAL," + bob + ";998",
+                bob + ",40,RATIO," + alice + ":1;" + bob + ":3");
+
+        var report = importService.importExpenses(eventId, new StringReader(csv), ExpenseImportService.Format.CSV, 2);
+
+        assertThat(report.rows).isEqualTo(5);
+        assertThat(report.imported).isEqualTo(3);
+        assertThat(report.chunks).isEqualTo(3);
+        assertThat(report.errors).extracting(e -> e.line + " " + e.message)
+                .containsExactly("3 Payer not found", "5 One or more participants not found");
+
+        verify(userRepository, times(3)).findAllById(anyIterable());
+        verify(userRepository, never()).findAll();
+
+        // alice paid 30 and owes 15 + 10 + 10; bob paid 60 and owes 15 + 10 + 30
+        var balances = ledger.balancesForEvent(eventId);
+        assertThat(balances.get(alice)).isEqualByComparingTo(new BigDecimal("5.00"));
+        assertThat(balances.get(bob)).isEqualByComparingTo(new BigDecimal("-5.00"));
+    }
+}
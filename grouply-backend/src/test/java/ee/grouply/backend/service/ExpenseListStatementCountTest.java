@@ -0,0 +1,114 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.Expense;
+import ee.grouply.backend.domain.ExpenseShare;
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.service.split.SplitEngine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ExpenseService#listByEvent} reads an event with two projection queries however
+ * many expenses and shares it has; counted with Hibernate's statistics.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ExpenseService.class, UserLookup.class, SplitEngine.class})
+class ExpenseListStatementCountTest {
+    @Autowired
+    ExpenseService expenseService;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+
+    @MockitoBean
+    BalanceLedgerService ledger;
+    @MockitoBean
+    HotPathMetrics metrics;
+
+    private Statistics statistics;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        users = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            var u = new User("User " + i, "user" + i + "@example.com");
+            em.persist(u);
+            users.add(u);
+        }
+    }
+
+    @Test
+    void anEmptyEventTakesOneStatement() {
+        assertThat(statementsToList(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithExpensesOrShares() {
+        seed(1L, 1, 1);
+        seed(2L, 10, 3);
+        seed(3L, 60, 8);
+
+        assertThat(statementsToList(1L)).isEqualTo(2);
+        assertThat(statementsToList(2L)).isEqualTo(2);
+        assertThat(statementsToList(3L)).isEqualTo(2);
+    }
+
+    @Test
+    void everyExpenseComesBackWithItsSharesAndNames() {
+        seed(4L, 25, 5);
+        em.flush();
+        em.clear();
+
+        var list = expenseService.listByEvent(4L);
+        assertThat(list).hasSize(25);
+        assertThat(list).allSatisfy(x -> {
+            assertThat(x.payerName).isEqualTo("User 0");
+            assertThat(x.shares).hasSize(5);
+        });
+    }
+
+    private long statementsToList(Long eventId) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        expenseService.listByEvent(eventId);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed(Long eventId, int expenses, int sharesEach) {
+        for (int i = 0; i < expenses; i++) {
+            var e = new Expense();
+            e.setEventId(eventId);
+            e.setPayer(users.get(0));
+            e.setAmount(BigDecimal.valueOf(sharesEach * 100L, 2));
+            e.setSplitMode(SplitMode.EQUAL);
+            e.setDescription("Expense " + i);
+            for (int j = 0; j < sharesEach; j++) {
+                var s = new ExpenseShare();
+                s.setExpense(e);
+                s.setUser(users.get(j));
+                s.setAmount(BigDecimal.ONE.setScale(2));
+                e.getShares().add(s);
+            }
+            em.persist(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A rename evicts the cached name when its transaction commits, not at flush: a reader
+ * that runs between the two still sees the old committed row and must not be able to
+ * put it back into the cache for good.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserLookup.class, UserCacheInvalidator.class})
+class UserCacheInvalidatorTest {
+    @Autowired
+    UserLookup lookup;
+    @Autowired
+    UserRepository users;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void evictsTheRenamedUserOnceTheRenameCommits() {
+        var tx = new TransactionTemplate(transactionManager);
+        var id = tx.execute(s -> users.save(new User("Alice", null)).getId());
+        assertThat(nameOf(id)).isEqualTo("Alice");
+
+        tx.executeWithoutResult(s -> {
+            users.findById(id).orElseThrow().setName("Alicia");
+            users.flush();
+            // a concurrent request between flush and commit reads the committed name
+            var concurrent = CompletableFuture.supplyAsync(() -> nameOf(id)).join();
+            assertThat(concurrent).isEqualTo("Alice");
+        });
+
+        assertThat(nameOf(id)).isEqualTo("Alicia");
+    }
+
+    @Test
+    void keepsTheCachedNameWhenTheRenameRollsBack() {
+        var tx = new TransactionTemplate(transactionManager);
+        var id = tx.execute(s -> users.save(new User("Bob", null)).getId());
+        assertThat(nameOf(id)).isEqualTo("Bob");
+        long misses = lookup.misses();
+
+        tx.executeWithoutResult(s -> {
+            users.findById(id).orElseThrow().setName("Robert");
+            users.flush();
+            s.setRollbackOnly();
+        });
+
+        assertThat(nameOf(id)).isEqualTo("Bob");
+        assertThat(lookup.misses()).isEqualTo(misses);
+    }
+
+    private String nameOf(Long id) {
+        return lookup.namesById(List.of(id)).get(id);
+    }
+}
@@ -0,0 +1,71 @@
+package ee.grouply.backend.service;
+
+import ee.grouply.backend.domain.User;
+import ee.grouply.backend.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserLookupTest {
+    private final UserRepository users = mock(UserRepository.class);
+
+    @Test
+    void servesRepeatedLookupsFromTheCacheWithinTheTtl() {
+        when(users.findAllById(anyIterable())).thenReturn(List.of(user(1L, "Alice")));
+        var lookup = new UserLookup(users, 100, Duration.ofHours(1));
+
+        assertThat(lookup.namesById(List.of(1L))).isEqualTo(Map.of(1L, "Alice"));
+        assertThat(lookup.namesById(List.of(1L))).isEqualTo(Map.of(1L, "Alice"));
+
+        verify(users, times(1)).findAllById(anyIterable());
+        assertThat(lookup.hits()).isEqualTo(1);
+        assertThat(lookup.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsEntriesOlderThanTheTtl() {
+        when(users.findAllById(anyIterable()))
+                .thenReturn(List.of(user(1L, "Alice")))
+                .thenReturn(List.of(user(1L, "Alicia")));
+        var lookup = new UserLookup(users, 100, Duration.ZERO);
+
+        assertThat(lookup.namesById(List.of(1L))).isEqualTo(Map.of(1L, "Alice"));
+        assertThat(lookup.namesById(List.of(1L))).isEqualTo(Map.of(1L, "Alicia"));
+
+        verify(users, times(2)).findAllById(anyIterable());
+        assertThat(lookup.stats().size).isEqualTo(1);
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedEntryBeyondMaxSize() {
+        when(users.findAllById(anyIterable()))
+                .thenReturn(List.of(user(1L, "Alice"), user(2L, "Bob")))
+                .thenReturn(List.of(user(3L, "Carol")))
+                .thenReturn(List.of(user(2L, "Bob")));
+        var lookup = new UserLookup(users, 2, Duration.ofHours(1));
+
+        lookup.namesById(List.of(1L, 2L));
+        lookup.namesById(List.of(1L));
+        lookup.namesById(List.of(3L));
+        lookup.namesById(List.of(2L));
+
+        verify(users, times(3)).findAllById(anyIterable());
+        assertThat(lookup.stats().size).isEqualTo(2);
+    }
+
+    private static User user(Long id, String name) {
+        var u = new User(name, null);
+        ReflectionTestUtils.setField(u, "id", id);
+        return u;
+    }
+}
@@ -0,0 +1,70 @@
+package ee.grouply.backend.service.search;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.repo.EventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventSearchIndexTest {
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @AfterEach
+    void cleanUp() {
+        eventRepository.deleteAll();
+    }
+
+    // read-only transactions go to the replica; the rebuild must read the primary
+    @Test
+    void firstRebuildRunsInItsOwnWritableTransaction() {
+        var jazz = eventRepository.save(new Event("Jazz night", null, LocalDateTime.of(2026, 6, 1, 19, 0), "Tartu", null));
+        List<Boolean> readOnly = new ArrayList<>();
+        var recording = mock(EventRepository.class);
+        doAnswer(call -> {
+            readOnly.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return eventRepository.streamTextRows();
+        }).when(recording).streamTextRows();
+        // not built yet, like right after startup
+        var index = new EventSearchIndex(recording, transactionManager);
+
+        var search = new TransactionTemplate(transactionManager);
+        search.setReadOnly(true);
+        var hits = search.execute(s -> index.search("jazz", null, null, null));
+
+        assertThat(hits).containsExactly(jazz.getId());
+        assertThat(readOnly).containsExactly(false);
+    }
+
+    @Test
+    void matchesEveryTermAsAPrefixWithoutAccents() {
+        var a = eventRepository.save(new Event("Kontsert Tõrvas", "Suvine õhtu", LocalDateTime.of(2026, 7, 1, 18, 0), "Tõrva", null));
+        var b = eventRepository.save(new Event("Konverents", null, LocalDateTime.of(2026, 5, 1, 9, 0), "Tallinn", null));
+        var index = new EventSearchIndex(eventRepository, transactionManager);
+        index.rebuild();
+
+        assertThat(index.search("kon", null, null, null)).containsExactly(b.getId(), a.getId());
+        assertThat(index.search("kon torv", null, null, null)).containsExactly(a.getId());
+        assertThat(index.search("kon", LocalDateTime.of(2026, 6, 1, 0, 0), null, null)).containsExactly(a.getId());
+        assertThat(index.search("kon", null, null, "tall")).containsExactly(b.getId());
+    }
+}
@@ -0,0 +1,206 @@
+package ee.grouply.backend.service.split;
+
+import ee.grouply.backend.domain.SplitMode;
+import ee.grouply.backend.dto.ShareDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Randomised checks of the split contract for every mode, through {@link SplitEngine}:
+ * the shares add up to the total, each one is within a cent of its exact fair value and
+ * equal weights are resolved in input order. Seeds are fixed so failures reproduce.
+ */
+class SplitStrategyPropertyTest {
+    private static final int RUNS = 2_000;
+
+    private final SplitEngine engine = new SplitEngine();
+
+    @ParameterizedTest
+    @EnumSource(SplitMode.class)
+    void sharesAddUpToTheTotal(SplitMode mode) {
+        var random = new Random(mode.ordinal());
+        for (int run = 0; run < RUNS; run++) {
+            var c = generate(mode, random);
+            long[] out = engine.split(mode, c.total, c.shares);
+            assertThat(out).as("%s %s", mode, c).hasSize(c.shares.size());
+            assertThat(Arrays.stream(out).sum()).as("%s %s", mode, c).isEqualTo(c.total);
+            assertThat(Arrays.stream(out).min().orElse(0)).as("%s %s", mode, c).isNotNegative();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SplitMode.class)
+    void everyShareIsWithinOneCentOfItsFairValue(SplitMode mode) {
+        var random = new Random(100 + mode.ordinal());
+        for (int run = 0; run < RUNS; run++) {
+            var c = generate(mode, random);
+            long[] out = engine.split(mode, c.total, c.shares);
+            assertWithinOneUnit(c.total, c.weights, out, mode + " " + c);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SplitMode.class)
+    void equalWeightsAreResolvedInInputOrder(SplitMode mode) {
+        var random = new Random(200 + mode.ordinal());
+        for (int run = 0; run < RUNS; run++) {
+            var c = generate(mode, random);
+            long[] out = engine.split(mode, c.total, c.shares);
+            for (int i = 0; i < out.length; i++) {
+                for (int j = i + 1; j < out.length; j++) {
+                    if (c.weights[i] != c.weights[j]) continue;
+                    assertThat(out[i] - out[j]).as("%s %s at %d, %d", mode, c, i, j).isBetween(0L, 1L);
+                }
+            }
+            assertThat(engine.split(mode, c.total, c.shares)).as("%s %s", mode, c).isEqualTo(out);
+        }
+    }
+
+    @Test
+    void largeTotalsTakeTheWidePathAndKeepTheContract() {
+        var random = new Random(300);
+        for (int run = 0; run < RUNS; run++) {
+            long total = Long.MAX_VALUE / 2 - random.nextInt(1_000_000);
+            long[] weights = new long[1 + random.nextInt(12)];
+            for (int i = 0; i < weights.length; i++) weights[i] = random.nextInt(1_000_000);
+            weights[random.nextInt(weights.length)]++;
+
+            long[] out = LargestRemainder.allocateInPlace(total, weights.clone());
+            assertThat(Arrays.stream(out).mapToObj(BigInteger::valueOf).reduce(BigInteger.ZERO, BigInteger::add))
+                    .isEqualTo(BigInteger.valueOf(total));
+            assertWithinOneUnit(total, weights, out, Arrays.toString(weights));
+        }
+    }
+
+    @Test
+    void equalSplitHandsLeftoverCentsToTheFirstParticipants() {
+        assertThat(engine.split(SplitMode.EQUAL, 100, shares(null, null, null))).containsExactly(34, 33, 33);
+        assertThat(engine.split(SplitMode.EQUAL, 200, shares(null, null, null))).containsExactly(67, 67, 66);
+    }
+
+    @Test
+    void tiedRemaindersGoToTheEarlierShare() {
+        assertThat(engine.split(SplitMode.RATIO, 101, shares(1.0, 2.0, 1.0, 2.0))).containsExactly(17, 34, 17, 33);
+        assertThat(engine.split(SplitMode.PERCENTAGE, 1, shares(50.0, 50.0))).containsExactly(1, 0);
+        assertThat(engine.split(SplitMode.UNITS, 5, shares(1.0, 1.0, 1.0))).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void rejectsAMissingMode() {
+        assertThatThrownBy(() -> engine.split(null, 100, shares(1.0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported split mode");
+    }
+
+    /** floor(fair) <= share <= ceil(fair) with fair = total * w / sum(w), in exact arithmetic. */
+    private static void assertWithinOneUnit(long total, long[] weights, long[] out, String description) {
+        var sum = BigInteger.ZERO;
+        for (long w : weights) sum = sum.add(BigInteger.valueOf(w));
+        if (sum.signum() == 0) {
+            // only FIXED gets here: a zero total split into zero amounts
+            assertThat(out).as(description).containsOnly(0L);
+            return;
+        }
+        for (int i = 0; i < out.length; i++) {
+            var exact = BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i]));
+            var scaled = BigInteger.valueOf(out[i]).multiply(sum);
+            assertThat(scaled.subtract(exact).abs()).as("%s at %d", description, i).isLessThan(sum);
+        }
+    }
+
+    private static List<ShareDTO> shares(Double... values) {
+        var out = new ArrayList<ShareDTO>();
+        for (int i = 0; i < values.length; i++) {
+            var s = new ShareDTO();
+            s.userId = i + 1L;
+            s.value = values[i];
+            out.add(s);
+        }
+        return out;
+    }
+
+    /** A random valid input for the mode and the weights the split is expected to follow. */
+    private static Case generate(SplitMode mode, Random random) {
+        int n = 1 + random.nextInt(12);
+        long total = random.nextInt(4) == 0 ? random.nextInt(n * 2) : random.nextLong(1, 100_000_000);
+        // a narrow value range makes equal weights, and so ties, common
+        boolean narrow = random.nextBoolean();
+        long[] weights = new long[n];
+        Double[] values = new Double[n];
+        switch (mode) {
+            case EQUAL -> {
+                Arrays.fill(weights, 1);
+                for (int i = 0; i < n; i++) values[i] = random.nextBoolean() ? null : random.nextDouble(100);
+            }
+            case RATIO -> {
+                for (int i = 0; i < n; i++) {
+                    if (random.nextInt(8) == 0) continue;
+                    weights[i] = narrow ? random.nextInt(4) * RatioSplit.SCALE : random.nextInt(1_000_000);
+                    values[i] = weights[i] / (double) RatioSplit.SCALE;
+                }
+                if (Arrays.stream(weights).sum() == 0) {
+                    weights[0] = RatioSplit.SCALE;
+                    values[0] = 1.0;
+                }
+            }
+            case PERCENTAGE -> {
+                long[] parts = partition(1_000_000, n, narrow, random);
+                for (int i = 0; i < n; i++) {
+                    weights[i] = parts[i];
+                    values[i] = parts[i] / 10_000.0;
+                }
+            }
+            case UNITS -> {
+                for (int i = 0; i < n; i++) {
+                    weights[i] = random.nextInt(narrow ? 3 : 50);
+                    values[i] = (double) weights[i];
+                }
+                if (Arrays.stream(weights).sum() == 0) {
+                    weights[0] = 1;
+                    values[0] = 1.0;
+                }
+            }
+            case FIXED -> {
+                long[] parts = partition(total, n, narrow, random);
+                for (int i = 0; i < n; i++) {
+                    weights[i] = parts[i];
+                    values[i] = parts[i] / 100.0;
+                }
+            }
+        }
+        return new Case(total, shares(values), weights);
+    }
+
+    /** Splits {@code total} into {@code n} non-negative parts; even splits when {@code even} divides it. */
+    private static long[] partition(long total, int n, boolean even, Random random) {
+        long[] parts = new long[n];
+        if (even && total % n == 0) {
+            Arrays.fill(parts, total / n);
+            return parts;
+        }
+        long left = total;
+        for (int i = 0; i < n - 1; i++) {
+            parts[i] = left == 0 ? 0 : random.nextLong(left + 1) / (n - i);
+            left -= parts[i];
+        }
+        parts[n - 1] = left;
+        return parts;
+    }
+
+    private record Case(long total, List<ShareDTO> shares, long[] weights) {
+        @Override
+        public String toString() {
+            return "total=" + total + " weights=" + Arrays.toString(weights);
+        }
+    }
+}
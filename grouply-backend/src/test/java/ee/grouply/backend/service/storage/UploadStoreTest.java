@@ -0,0 +1,79 @@
+package ee.grouply.backend.service.storage;
+
+import ee.grouply.backend.domain.Event;
+import ee.grouply.backend.domain.StoredObject;
+import ee.grouply.backend.repo.EventRepository;
+import ee.grouply.backend.repo.StoredObjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The garbage collector's recount finds an event's image in every URL form
+ * {@link UploadStore#keyOf} accepts, not only the relative one the store hands out.
+ */
+// a negative grace puts every object past the cutoff
+@DataJpaTest(properties = {"grouply.upload-dir=target/upload-store-test", "grouply.storage.gc-grace=-1s"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(UploadStore.class)
+class UploadStoreTest {
+    @Autowired
+    UploadStore store;
+    @Autowired
+    StoredObjectRepository objects;
+    @Autowired
+    EventRepository events;
+
+    @AfterEach
+    void cleanUp() {
+        events.deleteAll();
+        objects.deleteAll();
+    }
+
+    @Test
+    void anAbsoluteImageUrlKeepsTheFileAndRepairsItsCount() throws Exception {
+        var file = store.store(new ByteArrayInputStream("kept".getBytes(StandardCharsets.UTF_8)), "a.png", "image/png");
+        // saved without a retain, so the stored count has drifted to 0
+        var event = event(" https://grouply.example/files/" + file.storageKey() + " ");
+
+        assertThat(store.collectGarbage()).isZero();
+        assertThat(Files.exists(store.root().resolve(file.storageKey()))).isTrue();
+        assertThat(object(file.storageKey()).getRefCount()).isEqualTo(1);
+
+        events.delete(event);
+        store.release(event.getImageUrl());
+
+        assertThat(store.collectGarbage()).isEqualTo(1);
+        assertThat(Files.exists(store.root().resolve(file.storageKey()))).isFalse();
+    }
+
+    @Test
+    void anImageUrlOutsideTheStoreDoesNotCount() throws Exception {
+        var file = store.store(new ByteArrayInputStream("gone".getBytes(StandardCharsets.UTF_8)), "b.png", "image/png");
+        event("https://elsewhere.example/images/" + file.sha256() + ".png");
+
+        assertThat(store.collectGarbage()).isEqualTo(1);
+        assertThat(Files.exists(store.root().resolve(file.storageKey()))).isFalse();
+    }
+
+    private Event event(String imageUrl) {
+        var e = new Event();
+        e.setTitle("Picnic");
+        e.setImageUrl(imageUrl);
+        return events.save(e);
+    }
+
+    private StoredObject object(String key) {
+        return objects.findAll().stream().filter(o -> o.getStorageKey().equals(key)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,33 @@
+-- The schema ddl-auto=update created before the migrations existed (IDENTITY ids, the enum
+-- check with three split modes, no ledger), as it stands on PostgreSQL, with some data.
+
+create table app_user (id bigint generated by default as identity, email varchar(255), name varchar(255), primary key (id));
+create table event (id bigint generated by default as identity, capacity integer, date_time timestamp(6),
+    description varchar(5000), image_url varchar(2048), location varchar(255), title varchar(255), primary key (id));
+create table expense (id bigint generated by default as identity, amount numeric(12,2) not null,
+    created_at timestamp(6) with time zone, description varchar(2000), event_id bigint not null,
+    split_mode varchar(255), payer_id bigint not null, primary key (id),
+    constraint expense_split_mode_check check (split_mode in ('EQUAL','RATIO','PERCENTAGE')));
+create table expense_share (id bigint generated by default as identity, amount numeric(12,2) not null,
+    share_value float(53), expense_id bigint not null, user_id bigint not null, primary key (id));
+create table payment (id bigint generated by default as identity, amount numeric(12,2) not null,
+    created_at timestamp(6) with time zone, event_id bigint not null, settled boolean not null,
+    from_user_id bigint not null, to_user_id bigint not null, primary key (id));
+alter table expense add constraint fk_expense_payer foreign key (payer_id) references app_user;
+alter table expense_share add constraint fk_share_expense foreign key (expense_id) references expense;
+alter table expense_share add constraint fk_share_user foreign key (user_id) references app_user;
+alter table payment add constraint fk_payment_from foreign key (from_user_id) references app_user;
+alter table payment add constraint fk_payment_to foreign key (to_user_id) references app_user;
+
+insert into app_user (name, email) values ('Alice', 'a@x'), ('Bob', 'b@x'), ('Charlie', 'c@x'), ('David', 'd@x');
+insert into event (title) values ('Trip'), ('Dinner');
+-- event 1: Alice pays 90 for three, Bob 30 split 1:2; Charlie pays Alice back 10; one unsettled payment
+insert into expense (event_id, payer_id, amount, split_mode, created_at) values (1, 1, 90.00, 'EQUAL', current_timestamp);
+insert into expense_share (expense_id, user_id, amount) values (1, 1, 30.00), (1, 2, 30.00), (1, 3, 30.00);
+insert into expense (event_id, payer_id, amount, split_mode, created_at) values (1, 2, 30.00, 'RATIO', current_timestamp);
+insert into expense_share (expense_id, user_id, amount, share_value) values (2, 1, 10.00, 1), (2, 2, 20.00, 2);
+insert into payment (event_id, from_user_id, to_user_id, amount, settled, created_at) values (1, 3, 1, 10.00, true, current_timestamp);
+insert into payment (event_id, from_user_id, to_user_id, amount, settled, created_at) values (1, 2, 1, 20.00, false, current_timestamp);
+-- event 2: David pays 20, half for Charlie
+insert into expense (event_id, payer_id, amount, split_mode, created_at) values (2, 4, 20.00, 'PERCENTAGE', current_timestamp);
+insert into expense_share (expense_id, user_id, amount, share_value) values (3, 3, 10.00, 50), (3, 4, 10.00, 50);
@@ -0,0 +1,35 @@
+import type { EventItem } from "../components/EventCard";
+
+const apiBase = import.meta.env.VITE_API_BASE ?? "http://localhost:8080";
+
+export type EventFilters = { q?: string; from?: string; to?: string; location?: string };
+export type EventPage = { items: EventItem[]; page: number; size: number; total: number };
+
+// list items carry an excerpt instead of the description; getEvent has the full event
+export async function searchEvents(filters: EventFilters, page = 0, size = 20) {
+  const params = new URLSearchParams({ page: String(page), size: String(size) });
+  for (const [k, v] of Object.entries(filters)) {
+    if (v && v.trim()) params.set(k, v.trim());
+  }
+  const res = await fetch(`${apiBase}/api/events/search?${params}`);
+  if (!res.ok) throw new Error("Failed to fetch events");
+  return res.json() as Promise<EventPage>;
+}
+
+export type EventDashboard = {
+  event: EventItem;
+  // ledger version of the expenses, balances and settlements
+  version: number;
+  expenses: { items: any[]; nextCursor: string | null };
+  balances: { userId: number; name: string; balance: number }[];
+  settlements: { fromUserId: number; toUserId: number; amount: number }[];
+  settlementAlgorithm: string;
+  users: { id: number; name: string; email?: string }[];
+};
+
+// everything the event modal shows, in one request
+export async function getDashboard(id: number) {
+  const res = await fetch(`${apiBase}/api/events/${id}/dashboard`);
+  if (!res.ok) throw new Error("Failed to fetch event");
+  return res.json() as Promise<EventDashboard>;
+}
@@ -1,10 +1,11 @@
+export type SplitMode = "EQUAL" | "RATIO" | "PERCENTAGE" | "FIXED" | "UNITS";
 export type ShareDTO = { userId: number; value?: number };
 export type ExpenseCreateDTO = {
   eventId: number;
   payerId: number;
   amount: string;
   description?: string;
-  splitMode: "EQUAL" | "RATIO" | "PERCENTAGE";
+  splitMode: SplitMode;
   shares: ShareDTO[];
 };
 
@@ -16,6 +17,14 @@ export async function listExpenses(eventId: number) {
   return res.json();
 }
 
+export async function listExpensePage(eventId: number, cursor?: string | null, limit = 20) {
+  const params = new URLSearchParams({ limit: String(limit) });
+  if (cursor) params.set("cursor", cursor);
+  const res = await fetch(`${apiBase}/api/events/${eventId}/expenses/page?${params}`);
+  if (!res.ok) throw new Error("Failed to fetch expenses");
+  return res.json() as Promise<{ items: any[]; nextCursor: string | null }>;
+}
+
 export async function createExpense(dto: ExpenseCreateDTO) {
   const res = await fetch(`${apiBase}/api/expenses`, {
     method: "POST",
@@ -38,8 +47,8 @@ export async function listBalances(eventId: number) {
   return res.json();
 }
 
-export async function suggestedSettlements(eventId: number) {
-  const res = await fetch(`${apiBase}/api/events/${eventId}/settlements/suggested`);
+export async function suggestedSettlements(eventId: number, mode: "greedy" | "optimal" = "optimal") {
+  const res = await fetch(`${apiBase}/api/events/${eventId}/settlements/suggested?mode=${mode}`);
   if (!res.ok) throw new Error("Failed to fetch settlements");
   return res.json();
 }
@@ -0,0 +1,62 @@
+const apiBase = import.meta.env.VITE_API_BASE ?? "http://localhost:8080";
+
+export type BalanceRow = { userId: number; name: string; balance: number };
+
+export type StreamHandlers = {
+  // the stream is open; load the current state now so no change falls in between. version is
+  // the ledger version at connect, unknown when joining a stream that was already open
+  onReady?: (version?: number) => void;
+  onExpense?: (expense: any) => void;
+  onBalances?: (version: number, balances: BalanceRow[]) => void;
+  // changes were missed or came in bulk; fetch everything again
+  onReload?: () => void;
+};
+
+type Shared = { source: EventSource; handlers: Set<StreamHandlers> };
+
+// one connection per event, shared by every component that shows it
+const streams = new Map<number, Shared>();
+
+function open(eventId: number): Shared {
+  const source = new EventSource(`${apiBase}/api/events/${eventId}/stream`);
+  const shared: Shared = { source, handlers: new Set() };
+  const each = (f: (h: StreamHandlers) => void) => shared.handlers.forEach(f);
+  source.addEventListener("ready", (e) => {
+    const data = JSON.parse((e as MessageEvent).data);
+    each((h) => h.onReady?.(data.version));
+  });
+  source.addEventListener("reload", () => each((h) => h.onReload?.()));
+  source.addEventListener("expense", (e) => {
+    const expense = JSON.parse((e as MessageEvent).data);
+    each((h) => h.onExpense?.(expense));
+  });
+  source.addEventListener("balances", (e) => {
+    const data = JSON.parse((e as MessageEvent).data);
+    each((h) => h.onBalances?.(data.version, data.balances));
+  });
+  return shared;
+}
+
+/**
+ * Subscribes to live changes of an event; returns the unsubscribe function. The browser
+ * reconnects by itself after a drop and the server answers with a reload if anything was
+ * missed in between.
+ */
+export function subscribeEvent(eventId: number, handlers: StreamHandlers): () => void {
+  let shared = streams.get(eventId);
+  if (!shared) {
+    shared = open(eventId);
+    streams.set(eventId, shared);
+  } else if (shared.source.readyState === EventSource.OPEN) {
+    // joined an open stream, so its ready message is long gone
+    handlers.onReady?.();
+  }
+  shared.handlers.add(handlers);
+  return () => {
+    shared!.handlers.delete(handlers);
+    if (shared!.handlers.size === 0) {
+      shared!.source.close();
+      streams.delete(eventId);
+    }
+  };
+}
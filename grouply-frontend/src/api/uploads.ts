@@ -0,0 +1,73 @@
+const apiBase = import.meta.env.VITE_API_BASE ?? "http://localhost:8080";
+
+export const MAX_UPLOAD_SIZE = 2 * 1024 * 1024 * 1024;
+
+type UploadSession = {
+  id: string;
+  size: number;
+  chunkSize: number;
+  missingOffsets: number[];
+};
+
+export type UploadResult = {
+  url: string;
+  sha256: string;
+  size: number;
+  deduplicated: boolean;
+  variants: Record<string, string>;
+};
+
+const CHUNK_ATTEMPTS = 5;
+
+const sleep = (ms: number) => new Promise((resolve) => setTimeout(resolve, ms));
+
+async function getSession(id: string): Promise<UploadSession> {
+  const res = await fetch(`${apiBase}/api/uploads/sessions/${id}`);
+  if (!res.ok) throw new Error(`Upload status failed: ${res.status}`);
+  return res.json();
+}
+
+async function putChunk(session: UploadSession, file: File, offset: number) {
+  const chunk = file.slice(offset, Math.min(offset + session.chunkSize, file.size));
+  const res = await fetch(`${apiBase}/api/uploads/sessions/${session.id}?offset=${offset}`, {
+    method: "PUT",
+    headers: { "Content-Type": "application/octet-stream" },
+    body: chunk,
+  });
+  if (!res.ok) throw new Error(`Chunk upload failed: ${res.status}`);
+}
+
+/**
+ * Uploads a file in chunks. A chunk that fails is retried with backoff; before each retry
+ * the server is asked which chunks it still misses, so a dropped connection only costs
+ * the chunk that was in flight.
+ */
+export async function uploadFile(file: File, onProgress?: (sent: number, total: number) => void): Promise<UploadResult> {
+  const created = await fetch(`${apiBase}/api/uploads/sessions`, {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify({ filename: file.name, contentType: file.type, size: file.size }),
+  });
+  if (!created.ok) throw new Error(`Upload failed: ${created.status}`);
+  let session = (await created.json()) as UploadSession;
+
+  for (let attempt = 0; session.missingOffsets.length > 0; ) {
+    try {
+      for (const offset of session.missingOffsets) {
+        await putChunk(session, file, offset);
+        attempt = 0;
+        onProgress?.(Math.min(offset + session.chunkSize, file.size), file.size);
+      }
+      session = await getSession(session.id);
+    } catch (err) {
+      if (++attempt >= CHUNK_ATTEMPTS) throw err;
+      await sleep(500 * 2 ** attempt);
+      // if the status call fails too, the next round simply resends the same chunks
+      session = await getSession(session.id).catch(() => session);
+    }
+  }
+
+  const done = await fetch(`${apiBase}/api/uploads/sessions/${session.id}/complete`, { method: "POST" });
+  if (!done.ok) throw new Error(`Upload failed: ${done.status}`);
+  return done.json();
+}
@@ -1,12 +1,23 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { listBalances, suggestedSettlements, postPayment, listUsers } from "../api/expenses";
+import { subscribeEvent, type BalanceRow } from "../api/stream";
+import type { EventDashboard } from "../api/events";
 
-export default function BalanceOverview({ eventId }: { eventId: number }) {
-  const [balances, setBalances] = useState<any[]>([]);
-  const [loading, setLoading] = useState(true);
+const namesOf = (users: { id: number; name: string }[]) => {
+  const map: { [key: number]: string } = {};
+  users.forEach((x) => (map[x.id] = x.name));
+  return map;
+};
+
+// initial: balances, suggested transfers and users from the dashboard; skips their fetches
+export default function BalanceOverview({ eventId, initial }: { eventId: number; initial?: EventDashboard }) {
+  const [balances, setBalances] = useState<any[]>(initial?.balances ?? []);
+  const [loading, setLoading] = useState(!initial);
   const [settlements, setSettlements] = useState<any[]>([]);
   const [showSettlements, setShowSettlements] = useState(false);
-  const [users, setUsers] = useState<{ [key: number]: string }>({});
+  const [users, setUsers] = useState<{ [key: number]: string }>(initial ? namesOf(initial.users) : {});
+  // the preloaded transfers hold until the balances change
+  const preloaded = useRef(initial?.settlements ?? null);
 
   const load = () => {
     setLoading(true);
@@ -19,26 +30,62 @@ export default function BalanceOverview({ eventId }: { eventId: number }) {
       .finally(() => setLoading(false));
   };
 
-  useEffect(() => { load(); }, [eventId]);
+  useEffect(() => { if (!initial) load(); }, [eventId]);
+
+  // ledger version each user's balance was last updated at; pushes can arrive out of order
+  const versions = useRef<Record<number, number>>({});
+
+  const applyBalances = (version: number, rows: BalanceRow[]) => {
+    preloaded.current = null;
+    setBalances((old) => {
+      const next = [...old];
+      for (const r of rows) {
+        if ((versions.current[r.userId] ?? -1) > version) continue;
+        versions.current[r.userId] = version;
+        const i = next.findIndex((b: any) => b.userId === r.userId);
+        if (i >= 0) next[i] = { ...next[i], ...r };
+        else next.push(r);
+      }
+      return next;
+    });
+  };
+
+  // live updates; the refetches on ready / reload are cheap 304s when nothing changed
+  useEffect(() => {
+    versions.current = {};
+    // the preloaded rows are as of the dashboard's version; older pushes must not replace them
+    initial?.balances.forEach((b) => (versions.current[b.userId] = initial.version));
+    const onReady = (version?: number) => {
+      if (initial && version === initial.version) return;
+      preloaded.current = null;
+      load();
+    };
+    const onReload = () => {
+      preloaded.current = null;
+      load();
+    };
+    return subscribeEvent(eventId, { onReady, onReload, onBalances: applyBalances });
+  }, [eventId]);
 
   useEffect(() => {
+    if (initial) return;
     listUsers()
-      .then((u) => {
-        const map: any = {};
-        (u || []).forEach((x: any) => (map[x.id] = x.name));
-        setUsers(map);
-      })
+      .then((u) => setUsers(namesOf(u || [])))
       .catch((e) => console.error("Failed to load users:", e));
   }, []);
 
   const loadSuggested = () => {
+    setShowSettlements(true);
+    if (preloaded.current) {
+      setSettlements(preloaded.current);
+      return;
+    }
     suggestedSettlements(eventId)
       .then((d) => setSettlements(Array.isArray(d) ? d : []))
       .catch((e) => {
         console.error("Failed to fetch settlements:", e);
         setSettlements([]);
       });
-    setShowSettlements(true);
   };
 
   const settleOne = async (t: any) => {
@@ -49,6 +96,7 @@ export default function BalanceOverview({ eventId }: { eventId: number }) {
         toUserId: t.toUserId,
         amount: String(t.amount),
       });
+      preloaded.current = null;
       await listBalances(eventId).then(setBalances);
       setSettlements((s) =>
         s.filter(
@@ -1,13 +1,17 @@
-import React from "react";
+import React, { useState } from "react";
 
 export type EventItem = {
     id: number;
     title?: string;
     description?: string | null;
+    // start of the description, on list results that leave the description out
+    excerpt?: string | null;
     dateTime?: string | null;
     location?: string | null;
     capacity?: number | null;
     imageUrl?: string | null;
+    // resized renditions of an uploaded image; may not exist yet right after the upload
+    imageVariants?: { thumb?: string; card?: string; full?: string } | null;
 };
 
 const fmt = (iso?: string | null) => {
@@ -46,7 +50,21 @@ export default function EventCard({
             ? absoluteImg
             : `https://picsum.photos/seed/${event.id}/600/300`;
 
+    const variants = event.imageVariants ?? {};
+    const srcSet = joinParts(
+        [
+            variants.thumb && `${toAbsolute(variants.thumb)} 320w`,
+            variants.card && `${toAbsolute(variants.card)} 800w`,
+            variants.full && `${toAbsolute(variants.full)} 1920w`,
+        ],
+        ", "
+    );
+    // a variant that is still being generated 404s; then show the original upload instead
+    const [variantsFailed, setVariantsFailed] = useState(false);
+    const useVariants = !!srcSet && !variantsFailed;
+
     const meta = joinParts([fmt(event.dateTime), event.location]);
+    const desc = event.description ?? event.excerpt;
 
     return (
         <article
@@ -57,7 +75,15 @@ export default function EventCard({
             aria-label={event.title ? `Open ${event.title}` : "Event card"}
         >
             <div className="card-image" style={{ height: 140, overflow: "hidden" }}>
-                <img src={img} alt={event.title ?? "event image"} loading="lazy" style={{ width: "100%", height: "100%", objectFit: "cover" }} />
+                <img
+                    src={useVariants ? toAbsolute(variants.card) : img}
+                    srcSet={useVariants ? srcSet : undefined}
+                    sizes={useVariants ? "(max-width: 600px) 100vw, 400px" : undefined}
+                    onError={useVariants ? () => setVariantsFailed(true) : undefined}
+                    alt={event.title ?? "event image"}
+                    loading="lazy"
+                    style={{ width: "100%", height: "100%", objectFit: "cover" }}
+                />
             </div>
 
             <div className="card-body" style={{ padding: "12px 14px" }}>
@@ -73,9 +99,9 @@ export default function EventCard({
                     </div>
                 )}
 
-                {event.description && (
+                {desc && (
                     <p className="card-desc" style={{ margin: 0, color: "var(--muted-fg)", fontSize: "0.95rem", overflow: "hidden", textOverflow: "ellipsis", display: "-webkit-box", WebkitLineClamp: 2, WebkitBoxOrient: "vertical" }}>
-                        {event.description}
+                        {desc}
                     </p>
                 )}
             </div>
@@ -1,9 +1,11 @@
 // src/components/EventModal.tsx
 import { useEffect, useState } from "react";
 import type { EventItem } from "./EventCard";
+import type { EventDashboard } from "../api/events";
 import "./EventModal.css";
 import ExpenseList from "./ExpenseList";
 import BalanceOverview from "./BalanceOverview";
+import { MAX_UPLOAD_SIZE, uploadFile as uploadChunked } from "../api/uploads";
 
 const apiBase = import.meta.env.VITE_API_BASE ?? "http://localhost:8080";
 
@@ -14,8 +16,10 @@ const toAbsolute = (u?: string) =>
             ? u
             : `${apiBase}${u.startsWith("/") ? "" : "/"}${u}`;
 
-export default function EventModal({event, onClose, onSaved, onDeleted,}: {
+export default function EventModal({event, dashboard, onClose, onSaved, onDeleted,}: {
     event: EventItem;
+    // preloaded expenses and balances; used until the lists are refreshed
+    dashboard?: EventDashboard;
     onClose: () => void;
     onSaved: (updated: EventItem) => void;
     onDeleted: (id: number) => void;
@@ -65,23 +69,15 @@ export default function EventModal({event, onClose, onSaved, onDeleted,}: {
             alert("Please select an image file (jpg, png, webp...)");
             return;
         }
-        if (file.size > 10 * 1024 * 1024) {
-            alert("File is too large (max 10MB)");
+        if (file.size > MAX_UPLOAD_SIZE) {
+            alert("File is too large (max 2GB)");
             return;
         }
 
         setUploading(true);
         try {
-            const form = new FormData();
-            form.append("file", file);
-
-            const res = await fetch(`${apiBase}/api/uploads`, {
-                method: "POST",
-                body: form,
-            });
-            if (!res.ok) throw new Error(`Upload failed: ${res.status}`);
-
-            const data = (await res.json()) as { url: string };
+            // sent in chunks, so a dropped connection resumes instead of starting over
+            const data = await uploadChunked(file);
             setImageUrl(data.url);
             setPreviewAbs(toAbsolute(data.url));
         } catch (err) {
@@ -295,10 +291,12 @@ export default function EventModal({event, onClose, onSaved, onDeleted,}: {
                             <BalanceOverview 
                                 key={`balance-${refreshKey}`} 
                                 eventId={event.id} 
+                                initial={refreshKey === 0 ? dashboard : undefined}
                             />
                             <ExpenseList 
                                 key={`expenses-${refreshKey}`} 
                                 eventId={event.id} 
+                                initial={refreshKey === 0 ? dashboard : undefined}
                                 onExpenseAdded={refreshExpenses}
                             />
                         </div>
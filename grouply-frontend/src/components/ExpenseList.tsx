@@ -1,32 +1,80 @@
-import { useEffect, useState } from "react";
-import { listExpenses } from "../api/expenses";
+import { useEffect, useRef, useState } from "react";
+import { listExpensePage } from "../api/expenses";
+import { subscribeEvent } from "../api/stream";
 import ExpenseModal from "./ExpenseModal";
+import type { EventDashboard } from "../api/events";
 
 type Props = {
   eventId: number;
+  // first page from the dashboard; skips the initial fetch
+  initial?: EventDashboard;
   onExpenseAdded?: () => void; // optional callback to notify parent to refresh
 };
 
-export default function ExpenseList({ eventId, onExpenseAdded }: Props) {
-  const [expenses, setExpenses] = useState<any[]>([]);
-  const [loading, setLoading] = useState(true);
+export default function ExpenseList({ eventId, initial, onExpenseAdded }: Props) {
+  const [expenses, setExpenses] = useState<any[]>(initial?.expenses.items ?? []);
+  const [loading, setLoading] = useState(!initial);
   const [showAdd, setShowAdd] = useState(false);
+  const [nextCursor, setNextCursor] = useState<string | null>(initial?.expenses.nextCursor ?? null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const sentinel = useRef<HTMLDivElement | null>(null);
 
   const load = () => {
     setLoading(true);
-    listExpenses(eventId)
-      .then((d) => setExpenses(d ?? []))
+    listExpensePage(eventId)
+      .then((d) => {
+        setExpenses(d?.items ?? []);
+        setNextCursor(d?.nextCursor ?? null);
+      })
       .catch((e) => {
         console.error("Failed to load expenses:", e);
         setExpenses([]);
+        setNextCursor(null);
       })
       .finally(() => setLoading(false));
   };
 
+  const loadMore = () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    listExpensePage(eventId, nextCursor)
+      .then((d) => {
+        setExpenses((old) => [...old, ...(d?.items ?? [])]);
+        setNextCursor(d?.nextCursor ?? null);
+      })
+      .catch((e) => console.error("Failed to load more expenses:", e))
+      .finally(() => setLoadingMore(false));
+  };
+
   useEffect(() => {
-    load();
+    if (!initial) load();
   }, [eventId]);
 
+  // new expenses are pushed by the server; the list is newest first. The preloaded page is
+  // kept when the stream opens at the version it was read at
+  useEffect(
+    () =>
+      subscribeEvent(eventId, {
+        onReady: (version) => {
+          if (!initial || version !== initial.version) load();
+        },
+        onReload: load,
+        onExpense: (e) => setExpenses((old) => (old.some((x) => x.id === e.id) ? old : [e, ...old])),
+      }),
+    [eventId]
+  );
+
+  // fetch the next page when the bottom of the list scrolls into view
+  useEffect(() => {
+    const el = sentinel.current;
+    if (!el || !nextCursor) return;
+    const observer = new IntersectionObserver((entries) => {
+      if (entries.some((x) => x.isIntersecting)) loadMore();
+    });
+    observer.observe(el);
+    return () => observer.disconnect();
+  }, [nextCursor, loadingMore]);
+
   return (
     <div className="expenses-list" style={{ marginTop: 16 }}>
       <div style={{ display: "flex", justifyContent: "space-between", alignItems: "center", marginBottom: 12 }}>
@@ -79,6 +127,9 @@ export default function ExpenseList({ eventId, onExpenseAdded }: Props) {
         ))}
       </div>
 
+      <div ref={sentinel} style={{ height: 1 }} />
+      {loadingMore && <p>Loading more...</p>}
+
       {showAdd && (
         <ExpenseModal
           eventId={eventId}
@@ -1,12 +1,19 @@
 import { useEffect, useState } from "react";
-import { listUsers, createExpense } from "../api/expenses";
+import { listUsers, createExpense, type SplitMode } from "../api/expenses";
+
+const valuePlaceholder: Partial<Record<SplitMode, string>> = {
+  PERCENTAGE: "%",
+  RATIO: "ratio",
+  FIXED: "amount",
+  UNITS: "units",
+};
 
 export default function ExpenseModal({ eventId, onClose, onSaved }: { eventId: number; onClose: () => void; onSaved: () => void; }) {
   const [users, setUsers] = useState<{ id: number; name: string }[]>([]);
   const [payerId, setPayerId] = useState<number | null>(null);
   const [amount, setAmount] = useState("");
   const [description, setDescription] = useState("");
-  const [splitMode, setSplitMode] = useState<"EQUAL" | "RATIO" | "PERCENTAGE">("EQUAL");
+  const [splitMode, setSplitMode] = useState<SplitMode>("EQUAL");
   const [shares, setShares] = useState<{ userId: number; value?: string }[]>([]);
   const [saving, setSaving] = useState(false);
   const [error, setError] = useState<string | null>(null);
@@ -115,6 +122,8 @@ export default function ExpenseModal({ eventId, onClose, onSaved }: { eventId: n
                 <option value="EQUAL">Equal split</option>
                 <option value="PERCENTAGE">Split by percentage</option>
                 <option value="RATIO">Split by ratio</option>
+                <option value="UNITS">Split by units</option>
+                <option value="FIXED">Fixed amounts</option>
               </select>
             </div>
 
@@ -143,11 +152,11 @@ export default function ExpenseModal({ eventId, onClose, onSaved }: { eventId: n
                         onChange={() => toggleParticipant(u.id)}
                       />
                       <span style={{ flex: 1 }}>{u.name}</span>
-                      {(splitMode === "PERCENTAGE" || splitMode === "RATIO") && sel && (
+                      {splitMode !== "EQUAL" && sel && (
                         <input 
                           className="input" 
                           style={{ width: 100 }} 
-                          placeholder={splitMode === "PERCENTAGE" ? "%" : "ratio"}
+                          placeholder={valuePlaceholder[splitMode]}
                           value={sel.value ?? ""} 
                           onChange={(e) => setShares(s => 
                             s.map(x => x.userId === u.id ? 
@@ -1,28 +1,76 @@
-import { useEffect, useState } from "react";
+import { type ChangeEvent, useEffect, useRef, useState } from "react";
 import EventCard, { type EventItem } from "../components/EventCard";
 import EventModal from "../components/EventModal.tsx";
+import { getDashboard, searchEvents, type EventDashboard, type EventFilters } from "../api/events";
 
-const apiBase = import.meta.env.VITE_API_BASE ?? "http://localhost:8080";
+const PAGE_SIZE = 24;
 
 export default function EventsPage() {
     const [events, setEvents] = useState<EventItem[]>([]);
     const [loading, setLoading] = useState(true);
-    const [selected, setSelected] = useState<EventItem | null>(null);
+    const [selected, setSelected] = useState<EventDashboard | null>(null);
+    const [filters, setFilters] = useState<EventFilters>({});
+    const [page, setPage] = useState(0);
+    const [total, setTotal] = useState(0);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const sentinel = useRef<HTMLDivElement | null>(null);
+    // answers to an older filter state are dropped
+    const request = useRef(0);
 
-    const load = () => {
+    const load = (f: EventFilters) => {
+        const id = ++request.current;
         setLoading(true);
-        fetch(`${apiBase}/api/events`)
-            .then((r) => r.json())
-            .then((data) => setEvents(data))
+        searchEvents(f, 0, PAGE_SIZE)
+            .then((d) => {
+                if (id !== request.current) return;
+                setEvents(d.items);
+                setTotal(d.total);
+                setPage(0);
+            })
             .catch((e) => console.error("Fetch error:", e))
-            .finally(() => setLoading(false));
+            .finally(() => id === request.current && setLoading(false));
     };
 
+    const loadMore = () => {
+        if (loadingMore || events.length >= total) return;
+        const id = request.current;
+        setLoadingMore(true);
+        searchEvents(filters, page + 1, PAGE_SIZE)
+            .then((d) => {
+                if (id !== request.current) return;
+                setEvents((old) => [...old, ...d.items.filter((x) => !old.some((o) => o.id === x.id))]);
+                setTotal(d.total);
+                setPage(d.page);
+            })
+            .catch((e) => console.error("Fetch error:", e))
+            .finally(() => setLoadingMore(false));
+    };
+
+    // typing in the search box reloads once it pauses
     useEffect(() => {
-        load();
-    }, []);
+        const t = setTimeout(() => load(filters), 250);
+        return () => clearTimeout(t);
+    }, [filters]);
+
+    useEffect(() => {
+        const el = sentinel.current;
+        if (!el || events.length >= total) return;
+        const observer = new IntersectionObserver((entries) => {
+            if (entries.some((x) => x.isIntersecting)) loadMore();
+        });
+        observer.observe(el);
+        return () => observer.disconnect();
+    }, [events, total, loadingMore]);
+
+    const setFilter = (key: keyof EventFilters) => (e: ChangeEvent<HTMLInputElement>) =>
+        setFilters((old) => ({ ...old, [key]: e.target.value }));
 
-    const onCardClick = (e: EventItem) => setSelected(e);
+    // the list only has an excerpt; the modal gets the whole event with its expenses and balances
+    const onCardClick = (e: EventItem) => {
+        getDashboard(e.id)
+            .then(setSelected)
+            .catch((err) => console.error("Fetch error:", err));
+    };
 
     const handleSaved = (updated: EventItem) => {
         // optimistlik uuendus: vaheta listis välja
@@ -31,11 +79,33 @@ export default function EventsPage() {
 
     const handleDeleted = (id: number) => {
         setEvents((old) => old.filter((x) => x.id !== id));
+        setTotal((t) => Math.max(0, t - 1));
     };
 
     return (
         <div style={{ padding: "1rem" }}>
+            <div style={{ display: "flex", flexWrap: "wrap", gap: 8, marginBottom: 16 }}>
+                <input
+                    className="input"
+                    type="search"
+                    placeholder="Search events"
+                    value={filters.q ?? ""}
+                    onChange={setFilter("q")}
+                    style={{ flex: "2 1 200px" }}
+                />
+                <input
+                    className="input"
+                    placeholder="Location"
+                    value={filters.location ?? ""}
+                    onChange={setFilter("location")}
+                    style={{ flex: "1 1 140px" }}
+                />
+                <input className="input" type="date" aria-label="From" value={filters.from ?? ""} onChange={setFilter("from")} />
+                <input className="input" type="date" aria-label="To" value={filters.to ?? ""} onChange={setFilter("to")} />
+            </div>
+
             {loading && <p>Loading events...</p>}
+            {!loading && events.length === 0 && <p>No events found.</p>}
 
             <div className="cards-grid">
                 {events.map((e) => (
@@ -43,9 +113,13 @@ export default function EventsPage() {
                 ))}
             </div>
 
+            <div ref={sentinel} style={{ height: 1 }} />
+            {loadingMore && <p>Loading more...</p>}
+
             {selected && (
                 <EventModal
-                    event={selected}
+                    event={selected.event}
+                    dashboard={selected}
                     onClose={() => setSelected(null)}
                     onSaved={handleSaved}
                     onDeleted={handleDeleted}
@@ -53,4 +127,4 @@ export default function EventsPage() {
             )}
         </div>
     );
-}
\ No newline at end of file
+}
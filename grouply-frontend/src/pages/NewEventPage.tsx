@@ -1,6 +1,7 @@
 import { useState } from "react";
 import { useNavigate } from "react-router-dom";
 import "./NewEventPage.css";
+import { MAX_UPLOAD_SIZE, uploadFile as uploadChunked } from "../api/uploads";
 
 const apiBase = import.meta.env.VITE_API_BASE ?? "http://localhost:8080";
 
@@ -32,29 +33,21 @@ export default function NewEventPage() {
                 ? u
                 : `${apiBase}${u.startsWith("/") ? "" : "/"}${u}`;
 
-    // upload (POST /api/uploads)
+    // chunked upload (POST /api/uploads/sessions)
     const uploadFile = async (file: File) => {
         if (!file.type.startsWith("image/")) {
             alert("Please select an image file (jpg, png, webp...)");
             return;
         }
-        if (file.size > 10 * 1024 * 1024) {
-            alert("File is too large (max 10MB)");
+        if (file.size > MAX_UPLOAD_SIZE) {
+            alert("File is too large (max 2GB)");
             return;
         }
 
         setUploading(true);
         try {
-            const form = new FormData();
-            form.append("file", file);
-
-            const res = await fetch(`${apiBase}/api/uploads`, {
-                method: "POST",
-                body: form,
-            });
-            if (!res.ok) throw new Error(`Upload failed: ${res.status}`);
-
-            const data = (await res.json()) as { url: string };
+            // sent in chunks, so a dropped connection resumes instead of starting over
+            const data = await uploadChunked(file);
             setImageUrl(data.url);
             setPreviewAbs(toAbsolute(data.url));
         } catch (err) {